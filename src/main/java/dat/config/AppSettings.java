@@ -0,0 +1,226 @@
+package dat.config;
+
+import dat.security.enums.Role;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * One immutable snapshot of the application configuration, see Settings. Connection and token settings
+ * are only read at startup, the tunables at the bottom are read on every use and so follow a reload.
+ */
+public final class AppSettings {
+
+    static final int DEFAULT_TOKEN_CACHE_SIZE = 10_000;
+    static final long DEFAULT_BOOKING_PIPELINE_WINDOW_MS = 0;  // Off
+    static final int DEFAULT_BCRYPT_COST = 10;  // See PasswordHasherBenchmark for how long a hash takes per cost
+    static final int DEFAULT_BCRYPT_QUEUE_SIZE = 32;
+    static final RateLimit DEFAULT_IP_RATE_LIMIT = new RateLimit(200, 400);
+    static final RateLimit DEFAULT_ANONYMOUS_RATE_LIMIT = new RateLimit(50, 100);
+    static final RateLimit DEFAULT_ROLE_RATE_LIMIT = new RateLimit(100, 200);
+    static final RateLimit DEFAULT_AUTH_RATE_LIMIT = new RateLimit(1, 5);  // Every request costs a BCrypt hash
+
+    private final boolean deployed;
+    private final String dbName;
+    private final String connectionString;
+    private final String dbUsername;
+    private final String dbPassword;
+    private final String issuer;
+    private final String tokenExpireTime;
+    private final String secretKey;
+    private final int tokenCacheSize;
+    private final long bookingPipelineWindowMillis;
+    private final int bcryptCost;
+    private final int bcryptThreads;
+    private final int bcryptQueueSize;
+    private final RateLimit ipRateLimit;
+    private final Map<Role, RateLimit> roleRateLimits = new EnumMap<>(Role.class);
+    private final RateLimit authRateLimit;
+
+    private AppSettings(Lookup lookup) {
+        this.deployed = lookup.deployed();
+        this.dbName = lookup.string("DB_NAME");
+        this.connectionString = lookup.string("CONNECTION_STR");
+        this.dbUsername = lookup.string("DB_USERNAME");
+        this.dbPassword = lookup.string("DB_PASSWORD");
+        this.issuer = lookup.string("ISSUER");
+        this.tokenExpireTime = lookup.string("TOKEN_EXPIRE_TIME");
+        this.secretKey = lookup.string("SECRET_KEY");
+        this.tokenCacheSize = (int) lookup.number("TOKEN_CACHE_SIZE", DEFAULT_TOKEN_CACHE_SIZE, 1, Integer.MAX_VALUE);
+        this.bookingPipelineWindowMillis = lookup.number("BOOKING_PIPELINE_WINDOW_MS", DEFAULT_BOOKING_PIPELINE_WINDOW_MS, 0, 1_000);
+        this.bcryptCost = (int) lookup.number("BCRYPT_COST", DEFAULT_BCRYPT_COST, 4, 31);
+        this.bcryptThreads = (int) lookup.number("BCRYPT_THREADS", Runtime.getRuntime().availableProcessors(), 1, 256);
+        this.bcryptQueueSize = (int) lookup.number("BCRYPT_QUEUE_SIZE", DEFAULT_BCRYPT_QUEUE_SIZE, 1, 10_000);
+        this.ipRateLimit = lookup.rateLimit("RATE_LIMIT_IP", DEFAULT_IP_RATE_LIMIT);
+        for (Role role : Role.values()) {
+            roleRateLimits.put(role, lookup.rateLimit("RATE_LIMIT_" + role.name(),
+                    role == Role.ANYONE ? DEFAULT_ANONYMOUS_RATE_LIMIT : DEFAULT_ROLE_RATE_LIMIT));
+        }
+        this.authRateLimit = lookup.rateLimit("RATE_LIMIT_AUTH", DEFAULT_AUTH_RATE_LIMIT);
+    }
+
+    // The tunables of one snapshot with the startup-only settings of another
+    private AppSettings(AppSettings tunables, AppSettings startup) {
+        this.deployed = startup.deployed;
+        this.dbName = startup.dbName;
+        this.connectionString = startup.connectionString;
+        this.dbUsername = startup.dbUsername;
+        this.dbPassword = startup.dbPassword;
+        this.issuer = startup.issuer;
+        this.tokenExpireTime = startup.tokenExpireTime;
+        this.secretKey = startup.secretKey;
+        this.bcryptQueueSize = startup.bcryptQueueSize;
+        this.tokenCacheSize = tunables.tokenCacheSize;
+        this.bookingPipelineWindowMillis = tunables.bookingPipelineWindowMillis;
+        this.bcryptCost = tunables.bcryptCost;
+        this.bcryptThreads = tunables.bcryptThreads;
+        this.ipRateLimit = tunables.ipRateLimit;
+        this.roleRateLimits.putAll(tunables.roleRateLimits);
+        this.authRateLimit = tunables.authRateLimit;
+    }
+
+    /**
+     * When deployed, the environment wins over the properties, otherwise the properties win over the
+     * environment. Throws IllegalArgumentException for a tunable that is not a valid number.
+     */
+    static AppSettings from(Map<String, String> environment, Properties properties) {
+        return new AppSettings(new Lookup(environment.containsKey("DEPLOYED"), environment, properties));
+    }
+
+    public boolean isDeployed() {
+        return deployed;
+    }
+
+    public String getDbName() {
+        return required("DB_NAME", dbName);
+    }
+
+    public String getConnectionString() {
+        return required("CONNECTION_STR", connectionString);
+    }
+
+    public String getDbUsername() {
+        return required("DB_USERNAME", dbUsername);
+    }
+
+    public String getDbPassword() {
+        return required("DB_PASSWORD", dbPassword);
+    }
+
+    public String getIssuer() {
+        return required("ISSUER", issuer);
+    }
+
+    public String getTokenExpireTime() {
+        return required("TOKEN_EXPIRE_TIME", tokenExpireTime);
+    }
+
+    public String getSecretKey() {
+        return required("SECRET_KEY", secretKey);
+    }
+
+    public int getTokenCacheSize() {
+        return tokenCacheSize;
+    }
+
+    // 0 when bookings are committed one at a time
+    public long getBookingPipelineWindowMillis() {
+        return bookingPipelineWindowMillis;
+    }
+
+    // Log2 of the BCrypt rounds for new hashes, stored passwords with another cost are rehashed at login
+    public int getBcryptCost() {
+        return bcryptCost;
+    }
+
+    public int getBcryptThreads() {
+        return bcryptThreads;
+    }
+
+    // Only read at startup
+    public int getBcryptQueueSize() {
+        return bcryptQueueSize;
+    }
+
+    // All requests from one IP address together
+    public RateLimit getIpRateLimit() {
+        return ipRateLimit;
+    }
+
+    // Requests from one IP address to one route that allows the role
+    public RateLimit getRateLimit(Role role) {
+        return roleRateLimits.get(role);
+    }
+
+    // Requests from one IP address to /auth/login or /auth/register
+    public RateLimit getAuthRateLimit() {
+        return authRateLimit;
+    }
+
+    // True when a setting that is only read at startup differs, so a reload cannot apply it
+    boolean needsRestartComparedTo(AppSettings other) {
+        return deployed != other.deployed
+                || !Objects.equals(dbName, other.dbName)
+                || !Objects.equals(connectionString, other.connectionString)
+                || !Objects.equals(dbUsername, other.dbUsername)
+                || !Objects.equals(dbPassword, other.dbPassword)
+                || !Objects.equals(issuer, other.issuer)
+                || !Objects.equals(tokenExpireTime, other.tokenExpireTime)
+                || !Objects.equals(secretKey, other.secretKey)
+                || bcryptQueueSize != other.bcryptQueueSize;
+    }
+
+    // This snapshot with the settings that are only read at startup taken from running, so a reload cannot
+    // report a database, token or queue size that the running application does not use
+    AppSettings withStartupValuesOf(AppSettings running) {
+        return new AppSettings(this, running);
+    }
+
+    // Secrets are left out so the snapshot can be logged
+    @Override
+    public String toString() {
+        return "AppSettings[deployed=" + deployed + ", dbName=" + dbName + ", issuer=" + issuer
+                + ", tokenCacheSize=" + tokenCacheSize + ", bookingPipelineWindowMillis=" + bookingPipelineWindowMillis
+                + ", bcryptCost=" + bcryptCost + ", bcryptThreads=" + bcryptThreads + ", bcryptQueueSize=" + bcryptQueueSize
+                + ", ipRateLimit=" + ipRateLimit + ", roleRateLimits=" + roleRateLimits + ", authRateLimit=" + authRateLimit + "]";
+    }
+
+    private static String required(String name, String value) {
+        if (value == null) {
+            throw new IllegalStateException("Setting " + name + " is not configured, set it in config.properties or the environment");
+        }
+        return value;
+    }
+
+    private record Lookup(boolean deployed, Map<String, String> environment, Properties properties) {
+
+        String string(String name) {
+            String first = deployed ? environment.get(name) : properties.getProperty(name);
+            String value = first != null ? first : deployed ? properties.getProperty(name) : environment.get(name);
+            return value != null ? value.trim() : null;
+        }
+
+        RateLimit rateLimit(String name, RateLimit defaultValue) {
+            String value = string(name);
+            return value == null || value.isEmpty() ? defaultValue : RateLimit.parse(name, value);
+        }
+
+        long number(String name, long defaultValue, long min, long max) {
+            String value = string(name);
+            if (value == null || value.isEmpty()) {
+                return defaultValue;
+            }
+            try {
+                long number = Long.parseLong(value);
+                if (number < min || number > max) {
+                    throw new IllegalArgumentException(name + " must be between " + min + " and " + max + ", was " + number);
+                }
+                return number;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(name + " must be a whole number, was '" + value + "'");
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import dat.security.controllers.ExceptionController;
 import dat.routes.Routes;
 import dat.security.controllers.AccessController;
+import dat.security.controllers.RateLimitController;
 import dat.security.controllers.SecurityController;
 import dat.security.enums.Role;
 import dat.security.routes.SecurityRoutes;
@@ -22,6 +23,7 @@ public class ApplicationConfig {
     private static final ObjectMapper jsonMapper = new Utils().getObjectMapper();
     private static final SecurityController securityController = SecurityController.getInstance();
     private static final AccessController accessController = new AccessController();
+    private static final RateLimitController rateLimitController = new RateLimitController();
     private static final ExceptionController exceptionController = new ExceptionController();  // Use the ExceptionController
     private static final Logger logger = LoggerFactory.getLogger(ApplicationConfig.class);
     private static int count = 1;
@@ -33,16 +35,26 @@ public class ApplicationConfig {
         config.showJavalinBanner = false;
         config.bundledPlugins.enableRouteOverview("/routes", Role.ANYONE);
         config.router.contextPath = "/api"; // Base path for all endpoints
+        // Compile the role bitmask of every route once, as it is added
+        config.events(events -> events.handlerAdded(handler -> accessController.addRoute(handler.getHttpMethod(),
+                withoutContextPath(config.router.contextPath, handler.getPath()), handler.getRoles())));
         config.router.apiBuilder(routes.getRoutes());
         config.router.apiBuilder(SecurityRoutes.getSecuredRoutes());
         config.router.apiBuilder(SecurityRoutes.getSecurityRoutes());
         config.staticFiles.add("/public", Location.CLASSPATH);
     }
 
+    // The event reports the path with the context path in front, ctx.endpointHandlerPath() without it
+    private static String withoutContextPath(String contextPath, String path) {
+        return !contextPath.equals("/") && path.startsWith(contextPath) ? path.substring(contextPath.length()) : path;
+    }
+
     public static Javalin startServer(int port, EntityManagerFactory emf) {
         Javalin app = Javalin.create(ApplicationConfig::configuration);
+        Settings.watch();  // Pick up changed tunables from CONFIG_FILE without a restart
 
-        // Access control for requests
+        // Rate limiting, then access control for requests
+        app.beforeMatched(rateLimitController::rateLimitHandler);
         app.beforeMatched(accessController::accessHandler);
 
         // Log after each request is handled
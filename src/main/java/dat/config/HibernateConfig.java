@@ -3,8 +3,8 @@ package dat.config;
 import dat.entities.*;
 import dat.security.entities.Role;
 import dat.security.entities.User;
-import dat.util.Utils;
 import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.cfg.Configuration;
@@ -12,6 +12,9 @@ import org.hibernate.service.ServiceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
 import java.util.Properties;
 
 public class HibernateConfig {
@@ -22,6 +25,27 @@ public class HibernateConfig {
     private static EntityManagerFactory emfTest;
     private static Boolean isTest = false;
 
+    // Database objects that the entity annotations cannot express, applied after Hibernate has built the schema
+    private static final List<String> SCHEMA_EXTENSIONS = List.of(
+            // Trigram index for substring and typo-tolerant clinic name search
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_clinics_name_trgm ON clinics USING gin (name gin_trgm_ops)",
+            // No two scheduled appointments of a veterinarian may overlap, also across application instances
+            "CREATE EXTENSION IF NOT EXISTS btree_gist",
+            """
+            DO $$
+            BEGIN
+                IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'appointments_no_overlap') THEN
+                    ALTER TABLE appointments ADD CONSTRAINT appointments_no_overlap EXCLUDE USING gist (
+                        veterinarian_id WITH =,
+                        tsrange(appointment_datetime, appointment_datetime + duration_minutes * interval '1 minute') WITH &&
+                    ) WHERE (status = 'SCHEDULED');
+                END IF;
+            END $$""",
+            // The appointment IDs moved from an identity column to a pooled sequence, start it above the existing rows
+            "SELECT setval('appointments_seq', GREATEST((SELECT COALESCE(MAX(id), 1) FROM appointments), (SELECT last_value FROM appointments_seq)))"
+    );
+
     public static void setTest(Boolean test) {
         isTest = test;
     }
@@ -68,7 +92,7 @@ public class HibernateConfig {
 
             if (forTest) {
                 props = setTestProperties(props);  // Set test-specific properties
-            } else if (System.getenv("DEPLOYED") != null) {
+            } else if (Settings.get().isDeployed()) {
                 setDeployedProperties(props);  // Set deployed environment properties
             } else {
                 props = setDevProperties(props);  // Set dev environment properties
@@ -82,6 +106,7 @@ public class HibernateConfig {
                     .applySettings(configuration.getProperties())
                     .build();
             SessionFactory sf = configuration.buildSessionFactory(serviceRegistry);
+            applySchemaExtensions(sf);
             return sf.unwrap(EntityManagerFactory.class);
         } catch (Throwable ex) {
             logger.error("Initial SessionFactory creation failed.", ex);
@@ -89,6 +114,28 @@ public class HibernateConfig {
         }
     }
 
+    // Run the statements in SCHEMA_EXTENSIONS. They are idempotent, so this is safe on every startup.
+    private static void applySchemaExtensions(SessionFactory sf) {
+        try (Session session = sf.openSession()) {
+            session.doWork(connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(true);  // Each statement stands alone, so one failure does not abort the rest
+                try {
+                    for (String sql : SCHEMA_EXTENSIONS) {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute(sql);
+                        } catch (SQLException e) {
+                            // E.g. missing privileges to create extensions. Features relying on them fall back to slower plans.
+                            logger.warn("Could not apply schema extension '{}': {}", sql, e.getMessage());
+                        }
+                    }
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            });
+        }
+    }
+
     // Set common Hibernate properties
     private static Properties setBaseProperties(Properties props) {
         props.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
@@ -97,15 +144,19 @@ public class HibernateConfig {
         props.put("hibernate.current_session_context_class", "thread");
         props.put("hibernate.format_sql", "true");
         props.put("hibernate.use_sql_comments", "true");
+        props.put("hibernate.jdbc.batch_size", "50");  // Same as the allocation size of the pooled ID sequences
+        props.put("hibernate.order_inserts", "true");  // Group inserts per table so batches are not broken up
+        props.put("hibernate.order_updates", "true");
+        props.put("hibernate.query.in_clause_parameter_padding", "true");  // Reuse plans for IN lists of varying size
         return props;
     }
 
     // Set deployed environment-specific properties
     private static Properties setDeployedProperties(Properties props) {
-        String dbName = System.getenv("DB_NAME");
-        props.setProperty("hibernate.connection.url", System.getenv("CONNECTION_STR") + dbName);
-        props.setProperty("hibernate.connection.username", System.getenv("DB_USERNAME"));
-        props.setProperty("hibernate.connection.password", System.getenv("DB_PASSWORD"));
+        AppSettings settings = Settings.get();
+        props.setProperty("hibernate.connection.url", settings.getConnectionString() + settings.getDbName());
+        props.setProperty("hibernate.connection.username", settings.getDbUsername());
+        props.setProperty("hibernate.connection.password", settings.getDbPassword());
         props.put("hibernate.show_sql", "false");
         props.put("hibernate.format_sql", "false");
         return props;
@@ -113,7 +164,7 @@ public class HibernateConfig {
 
     // Set dev environment-specific properties
     private static Properties setDevProperties(Properties props) {
-        String dbName = Utils.getPropertyValue("DB_NAME", "config.properties");
+        String dbName = Settings.get().getDbName();
         props.put("hibernate.connection.url", "jdbc:postgresql://localhost:5432/" + dbName);
         props.put("hibernate.connection.username", "postgres");
         props.put("hibernate.connection.password", "postgres");
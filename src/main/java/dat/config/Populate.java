@@ -7,6 +7,7 @@ import jakarta.persistence.EntityManagerFactory;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 
 public class Populate {
@@ -39,11 +40,20 @@ public class Populate {
             em.persist(esbjerg);
 
             // Populate Clinics
-            c1 = new Clinic(null, "Copenhagen Clinic", "Kongevejen 27", "+45 30 30 30 30", copenhagen, true, null);
-            c2 = new Clinic(null, "Aarhus Clinic", "Viborgvej 27", "+45 40 40 40 40", aarhus, true, null);
-            c3 = new Clinic(null, "Odense Clinic", "Hjallesevej 27", "+45 50 50 50 50", odense, true, null);
-            c4 = new Clinic(null, "Aalborg Clinic", "Hobrovej 27", "+45 60 60 60 60", aalborg, true, null);
-            c5 = new Clinic(null, "Esbjerg Clinic", "Søndre Ringvej 27", "+45 70 70 70 70", esbjerg, true, null);
+            c1 = new Clinic(null, "Copenhagen Clinic", "Kongevejen 27", "+45 30 30 30 30", copenhagen, true, 55.6761, 12.5683, new ArrayList<>(), null);
+            c2 = new Clinic(null, "Aarhus Clinic", "Viborgvej 27", "+45 40 40 40 40", aarhus, true, 56.1629, 10.2039, new ArrayList<>(), null);
+            c3 = new Clinic(null, "Odense Clinic", "Hjallesevej 27", "+45 50 50 50 50", odense, true, 55.4038, 10.4024, new ArrayList<>(), null);
+            c4 = new Clinic(null, "Aalborg Clinic", "Hobrovej 27", "+45 60 60 60 60", aalborg, true, 57.0488, 9.9217, new ArrayList<>(), null);
+            c5 = new Clinic(null, "Esbjerg Clinic", "Søndre Ringvej 27", "+45 70 70 70 70", esbjerg, true, 55.4765, 8.4594, new ArrayList<>(), null);
+
+            // Opening hours: weekdays 08-17 and Saturday mornings, Copenhagen also takes Sunday emergencies
+            for (Clinic clinic : List.of(c1, c2, c3, c4, c5)) {
+                for (Weekday day : List.of(Weekday.MONDAY, Weekday.TUESDAY, Weekday.WEDNESDAY, Weekday.THURSDAY, Weekday.FRIDAY)) {
+                    clinic.addOpeningHour(new OpeningHours(null, day, LocalTime.of(8, 0), LocalTime.of(17, 0), null));
+                }
+                clinic.addOpeningHour(new OpeningHours(null, Weekday.SATURDAY, LocalTime.of(9, 0), LocalTime.of(13, 0), null));
+            }
+            c1.addOpeningHour(new OpeningHours(null, Weekday.SUNDAY, LocalTime.of(10, 0), LocalTime.of(14, 0), null));
 
             // Persisting Clinics
             em.persist(c1);
@@ -53,12 +63,12 @@ public class Populate {
             em.persist(c5);
 
             // Populate Veterinarians connected to the clinics
-            v1 = new Veterinarian(null, "Henrik Larsen", Specialization.GENERAL_PRACTICE, c1, Availability.AVAILABLE);
-            v2 = new Veterinarian(null, "Anna Jensen", Specialization.SURGERY, c1, Availability.BOOKED);
-            v3 = new Veterinarian(null, "Peter Hansen", Specialization.DENTISTRY, c2, Availability.AVAILABLE);
-            v4 = new Veterinarian(null, "Maria Nielsen", Specialization.DERMATOLOGY, c3, Availability.UNAVAILABLE);
-            v5 = new Veterinarian(null, "Søren Kristensen", Specialization.INTERNAL_MEDICINE, c4, Availability.BOOKED);
-            v6 = new Veterinarian(null, "Lotte Petersen", Specialization.GENERAL_PRACTICE, c5, Availability.ON_VACATION);
+            v1 = new Veterinarian(null, "Henrik Larsen", Specialization.GENERAL_PRACTICE, c1, Availability.AVAILABLE, null);
+            v2 = new Veterinarian(null, "Anna Jensen", Specialization.SURGERY, c1, Availability.BOOKED, null);
+            v3 = new Veterinarian(null, "Peter Hansen", Specialization.DENTISTRY, c2, Availability.AVAILABLE, null);
+            v4 = new Veterinarian(null, "Maria Nielsen", Specialization.DERMATOLOGY, c3, Availability.UNAVAILABLE, null);
+            v5 = new Veterinarian(null, "Søren Kristensen", Specialization.INTERNAL_MEDICINE, c4, Availability.BOOKED, null);
+            v6 = new Veterinarian(null, "Lotte Petersen", Specialization.GENERAL_PRACTICE, c5, Availability.ON_VACATION, null);
 
             // Persisting Veterinarians
             em.persist(v1);
@@ -79,11 +89,11 @@ public class Populate {
             em.persist(cl3);
 
             // Populate Animals (set owners after creating clients)
-            a1 = new Animal(null, "Coco", Animals.DOG, "Labrador", 5, cl1, MedicalHistory.DEWORMED);
-            a2 = new Animal(null, "Cleo", Animals.CAT, "Siamese", 3, cl1, MedicalHistory.DIETARY_RESTRICTIONS);
-            a3 = new Animal(null, "Buster", Animals.DOG, "Golden Retriever", 2, cl2, MedicalHistory.FLEA_TREATED);
-            a4 = new Animal(null, "Molly", Animals.RABBIT, "Normal", 4, cl3, MedicalHistory.VACCINATED);
-            a5 = new Animal(null, "Sofus", Animals.FISH, "Normal", 1, cl3, MedicalHistory.DEWORMED);
+            a1 = new Animal(null, "Coco", Animals.DOG, "Labrador", 5, cl1, MedicalHistory.DEWORMED, null);
+            a2 = new Animal(null, "Cleo", Animals.CAT, "Siamese", 3, cl1, MedicalHistory.DIETARY_RESTRICTIONS, null);
+            a3 = new Animal(null, "Buster", Animals.DOG, "Golden Retriever", 2, cl2, MedicalHistory.FLEA_TREATED, null);
+            a4 = new Animal(null, "Molly", Animals.RABBIT, "Normal", 4, cl3, MedicalHistory.VACCINATED, null);
+            a5 = new Animal(null, "Sofus", Animals.FISH, "Normal", 1, cl3, MedicalHistory.DEWORMED, null);
 
             // Persist Animals
             em.persist(a1);
@@ -101,34 +111,40 @@ public class Populate {
             app1 = new Appointment(
                     null,
                     LocalDateTime.of(2024, 10, 10, 10, 0),  // Example of LocalDateTime
+                    30,  // Duration in minutes
                     "Checkup for Coco",
                     AppointmentStatus.SCHEDULED,
                     c1,  // Clinic
                     cl1,  // Client
                     a1,   // Animal (Coco)
-                    v1    // Veterinarian (add this argument)
+                    v1,   // Veterinarian (add this argument)
+                    null  // Version, set by Hibernate on persist
             );
 
             app2 = new Appointment(
                     null,
                     LocalDateTime.of(2024, 1, 15, 11, 0),  // Specific date and time
+                    15,
                     "Vaccination for Cleo",
                     AppointmentStatus.SCHEDULED,
                     c1,
                     cl1,
                     a2,
-                    v2
+                    v2,
+                    null
             );
 
             app3 = new Appointment(
                     null,
                     LocalDateTime.of(2024, 1, 16, 9, 0),
+                    45,
                     "Dental check for Buster",
                     AppointmentStatus.SCHEDULED,
                     c2,
                     cl2,
                     a3,
-                    v3
+                    v3,
+                    null
             );
 
             // Persisting Appointments
@@ -0,0 +1,39 @@
+package dat.config;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request rate and the burst allowed on top of it, written as "requestsPerSecond/burst" in the settings,
+ * e.g. "50/100". "off" disables the limit.
+ */
+public record RateLimit(double perSecond, int burst) {
+
+    public static final RateLimit OFF = new RateLimit(0, 0);
+
+    public boolean isOff() {
+        return perSecond <= 0;
+    }
+
+    // Time for one token to come back, the refill rate of a GCRA bucket
+    public long intervalNanos() {
+        return (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+    }
+
+    // Throws IllegalArgumentException for values that are not of the form above
+    static RateLimit parse(String name, String value) {
+        if (value.equalsIgnoreCase("off")) {
+            return OFF;
+        }
+        String[] parts = value.split("/");
+        try {
+            double perSecond = Double.parseDouble(parts[0].trim());
+            int burst = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : (int) Math.ceil(perSecond);
+            if (parts.length > 2 || !(perSecond > 0) || burst < 1) {
+                throw new NumberFormatException();
+            }
+            return new RateLimit(perSecond, burst);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be 'requestsPerSecond/burst' or 'off', was '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package dat.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current AppSettings. The snapshot is built once when the class is loaded, from the environment,
+ * config.properties on the classpath and, if the CONFIG_FILE environment variable names one, a properties
+ * file on disk that overrides the classpath one. Reading the settings is a single volatile load.
+ *
+ * After watch() the file named by CONFIG_FILE is checked every few seconds and a changed file replaces the
+ * whole snapshot in one swap, so a reader never sees half of a reload. Only the tunables take effect that
+ * way, changed connection, token or queue size settings are logged and keep their startup values until a
+ * restart.
+ */
+public final class Settings {
+
+    private static final Logger logger = LoggerFactory.getLogger(Settings.class);
+
+    private static final String RESOURCE_NAME = "config.properties";
+    private static final long WATCH_INTERVAL_SECONDS = 5;
+
+    private static final Path configFile = System.getenv("CONFIG_FILE") != null ? Path.of(System.getenv("CONFIG_FILE")) : null;
+    private static volatile AppSettings current = load();
+    private static long loadedModified;  // Modification time of the file the snapshot was read from, guarded by Settings.class
+    private static ScheduledExecutorService watcher;
+
+    private Settings() {}
+
+    public static AppSettings get() {
+        return current;
+    }
+
+    public static synchronized void watch() {
+        if (configFile == null || watcher != null) {
+            return;
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "settings-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(Settings::reloadIfChanged, WATCH_INTERVAL_SECONDS, WATCH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        logger.info("Watching {} for setting changes.", configFile);
+    }
+
+    // Reread the settings now, e.g. after CONFIG_FILE was edited. Keeps the old snapshot if the new one is invalid.
+    public static synchronized void reload() {
+        try {
+            AppSettings reloaded = read();
+            if (reloaded.needsRestartComparedTo(current)) {
+                logger.warn("Settings that are only read at startup changed in {}, they take effect after a restart.", configFile);
+                reloaded = reloaded.withStartupValuesOf(current);
+            }
+            current = reloaded;
+            logger.info("Settings reloaded: {}", reloaded);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Could not reload settings, keeping the current ones: {}", e.getMessage());
+        }
+    }
+
+    private static synchronized void reloadIfChanged() {
+        try {
+            long modified = Files.getLastModifiedTime(configFile).toMillis();
+            if (modified != loadedModified) {
+                reload();
+            }
+        } catch (IOException e) {
+            logger.error("Could not check {} for changes: {}", configFile, e.getMessage());
+        }
+    }
+
+    private static AppSettings load() {
+        try {
+            AppSettings settings = read();
+            logger.info("Settings loaded: {}", settings);
+            return settings;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the settings: " + e.getMessage(), e);
+        }
+    }
+
+    private static synchronized AppSettings read() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream is = Settings.class.getClassLoader().getResourceAsStream(RESOURCE_NAME)) {
+            if (is != null) {
+                properties.load(is);
+            }
+        }
+        if (configFile != null) {
+            loadedModified = Files.getLastModifiedTime(configFile).toMillis();
+            try (Reader reader = Files.newBufferedReader(configFile, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+        }
+        return AppSettings.from(System.getenv(), properties);
+    }
+}
@@ -4,16 +4,21 @@ import dat.config.HibernateConfig;
 import dat.controller.IController;
 import dat.dao.impl.AnimalDAO;
 import dat.dto.AnimalDTO;
+import dat.dto.PageDTO;
 import dat.exception.ApiException;
 import dat.exception.JpaException;
+import dat.util.ETags;
+import dat.util.NdjsonWriter;
+import dat.util.Pagination;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import io.javalin.validation.ValidationException;
 import jakarta.persistence.EntityManagerFactory;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.util.Map;
 
 public class AnimalController implements IController<AnimalDTO, Integer> {
 
@@ -28,9 +33,26 @@ public class AnimalController implements IController<AnimalDTO, Integer> {
     @Override
     public void read(@NotNull Context ctx) {
         try {
-            int id = ctx.pathParamAsClass("id", Integer.class)
-                    .check(this::validatePrimaryKey, "Not a valid id")
-                    .get();
+            int id = ctx.pathParamAsClass("id", Integer.class).get();
+
+            // Version-only lookup, an unchanged animal is answered with 304 without loading it
+            Long version = dao.readVersion(id);
+            if (version == null) {
+                logger.warn("Animal with ID {} not found.", id);
+                throw new ApiException(HttpStatus.NOT_FOUND.getCode(), "Animal not found");
+            }
+            if (ETags.notModified(ctx, version)) {
+                logger.info("Animal with ID {} not modified.", id);
+                return;
+            }
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                Map<String, Object> animal = dao.read(id, AnimalDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(animal);
+                logger.info("Animal with ID {} successfully retrieved with fields {}.", id, fields);
+                return;
+            }
             AnimalDTO animalDTO = dao.read(id);
 
             if (animalDTO != null) {
@@ -45,6 +67,9 @@ public class AnimalController implements IController<AnimalDTO, Integer> {
             logger.error("API Exception while fetching animal: {}", e.getMessage());
             ctx.status(e.getStatusCode());
             ctx.json(e.getMessageRecord());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for animal: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching animal: {}", e.getMessage());
             ctx.status(e.getStatusCode());
@@ -58,10 +83,32 @@ public class AnimalController implements IController<AnimalDTO, Integer> {
     @Override
     public void readAll(@NotNull Context ctx) {
         try {
-            List<AnimalDTO> animalDTOS = dao.readAll();
+            if (NdjsonWriter.isRequested(ctx)) {
+                try (NdjsonWriter<AnimalDTO> writer = NdjsonWriter.open(ctx)) {
+                    dao.streamAll(writer);
+                    logger.info("Successfully streamed {} animals as NDJSON.", writer.getCount());
+                }
+                return;
+            }
+            Pagination.PageRequest pageRequest = Pagination.fromQuery(ctx);
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                PageDTO<Map<String, Object>> page = dao.readPage(pageRequest.after(), pageRequest.limit(), AnimalDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(page);
+                logger.info("Successfully fetched a page of {} animals with fields {}.", page.getItems().size(), fields);
+                return;
+            }
+            PageDTO<AnimalDTO> page = dao.readPage(pageRequest.after(), pageRequest.limit());
             ctx.status(HttpStatus.OK);
-            ctx.json(animalDTOS);
-            logger.info("Successfully fetched all animals.");
+            ctx.json(page);
+            logger.info("Successfully fetched a page of {} animals.", page.getItems().size());
+        } catch (ValidationException e) {
+            logger.warn("Invalid paging parameters for animals: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid after or limit parameters");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for animals: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching all animals: {}", e.getMessage());
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching animals from the database");
@@ -3,34 +3,88 @@ package dat.controller.impl;
 import dat.config.HibernateConfig;
 import dat.controller.IController;
 import dat.dao.impl.AppointmentDAO;
+import dat.dao.impl.BookingPipeline;
+import dat.dao.impl.ClinicDAO;
+import dat.dao.impl.VeterinarianDAO;
 import dat.dto.AppointmentDTO;
+import dat.dto.AppointmentStatsDTO;
+import dat.dto.BulkImportResultDTO;
+import dat.dto.FreeSlotDTO;
+import dat.dto.PageDTO;
+import dat.dto.StatusTransitionDTO;
+import dat.dto.StatusTransitionResultDTO;
+import dat.entities.Appointment;
+import dat.enums.AppointmentStatus;
+import dat.enums.Specialization;
 import dat.exception.ApiException;
 import dat.exception.JpaException;
+import dat.index.OpeningScheduleIndex;
+import dat.util.ETags;
+import dat.util.NdjsonReader;
+import dat.util.NdjsonWriter;
+import dat.util.Pagination;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import io.javalin.validation.ValidationException;
 import jakarta.persistence.EntityManagerFactory;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class AppointmentController implements IController<AppointmentDTO, Integer> {
 
     private static final Logger logger = LoggerFactory.getLogger(AppointmentController.class);  // Logger instance
+    private static final int DEFAULT_FREE_SLOT_COUNT = 10;
+    private static final int MAX_FREE_SLOT_COUNT = 50;
+    private static final int MAX_FREE_SLOT_DAYS = 31;
+    private static final int MAX_DURATION_MINUTES = 8 * 60;
+    private static final int MAX_CALENDAR_DAYS = 62;
+    private static final long BOOKING_TIMEOUT_SECONDS = 10;  // Far beyond one pipeline window plus its commit
     private final AppointmentDAO dao;
+    private final BookingPipeline bookingPipeline;  // Null unless group commit is enabled
 
     public AppointmentController() {
         EntityManagerFactory emf = HibernateConfig.getEntityManagerFactory();
         this.dao = AppointmentDAO.getInstance(emf);
+        this.bookingPipeline = BookingPipeline.getInstance(dao);
+        ClinicDAO.getInstance(emf);  // Loads opening hours and clinic cities for the free-slot search
+        VeterinarianDAO.getInstance(emf);  // Loads veterinarians into the calendars
     }
 
     @Override
     public void read(@NotNull Context ctx) {
         try {
-            int id = ctx.pathParamAsClass("id", Integer.class)
-                    .check(this::validatePrimaryKey, "Not a valid id")
-                    .get();
+            int id = ctx.pathParamAsClass("id", Integer.class).get();
+
+            // Version-only lookup, an unchanged appointment is answered with 304 without loading it
+            Long version = dao.readVersion(id);
+            if (version == null) {
+                logger.warn("Appointment with ID {} not found.", id);
+                throw new ApiException(HttpStatus.NOT_FOUND.getCode(), "Appointment not found");
+            }
+            if (ETags.notModified(ctx, version)) {
+                logger.info("Appointment with ID {} not modified.", id);
+                return;
+            }
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                Map<String, Object> appointment = dao.read(id, AppointmentDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(appointment);
+                logger.info("Appointment with ID {} successfully retrieved with fields {}.", id, fields);
+                return;
+            }
             AppointmentDTO appointmentDTO = dao.read(id);
 
             if (appointmentDTO != null) {
@@ -45,6 +99,9 @@ public class AppointmentController implements IController<AppointmentDTO, Intege
             logger.error("API Exception while fetching appointment: {}", e.getMessage());
             ctx.status(e.getStatusCode());
             ctx.json(e.getMessageRecord());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for appointment: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching appointment: {}", e.getMessage());
             ctx.status(e.getStatusCode());
@@ -58,10 +115,32 @@ public class AppointmentController implements IController<AppointmentDTO, Intege
     @Override
     public void readAll(@NotNull Context ctx) {
         try {
-            List<AppointmentDTO> appointmentDTOS = dao.readAll();
+            if (NdjsonWriter.isRequested(ctx)) {
+                try (NdjsonWriter<AppointmentDTO> writer = NdjsonWriter.open(ctx)) {
+                    dao.streamAll(writer);
+                    logger.info("Successfully streamed {} appointments as NDJSON.", writer.getCount());
+                }
+                return;
+            }
+            Pagination.PageRequest pageRequest = Pagination.fromQuery(ctx);
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                PageDTO<Map<String, Object>> page = dao.readPage(pageRequest.after(), pageRequest.limit(), AppointmentDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(page);
+                logger.info("Successfully fetched a page of {} appointments with fields {}.", page.getItems().size(), fields);
+                return;
+            }
+            PageDTO<AppointmentDTO> page = dao.readPage(pageRequest.after(), pageRequest.limit());
             ctx.status(HttpStatus.OK);
-            ctx.json(appointmentDTOS);
-            logger.info("Successfully fetched all appointments.");
+            ctx.json(page);
+            logger.info("Successfully fetched a page of {} appointments.", page.getItems().size());
+        } catch (ValidationException e) {
+            logger.warn("Invalid paging parameters for appointments: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid after or limit parameters");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for appointments: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching all appointments: {}", e.getMessage());
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching appointments from the database");
@@ -75,11 +154,16 @@ public class AppointmentController implements IController<AppointmentDTO, Intege
     public void create(@NotNull Context ctx) {
         try {
             AppointmentDTO jsonRequest = ctx.bodyAsClass(AppointmentDTO.class);
-            AppointmentDTO appointmentDTO = dao.create(jsonRequest);
+            AppointmentDTO appointmentDTO = bookingPipeline != null ? awaitBooking(jsonRequest) : dao.create(jsonRequest);
             ctx.status(HttpStatus.CREATED);  // 201 Created
             ctx.json(appointmentDTO);
             logger.info("Successfully created new appointment with ID {}", appointmentDTO.getId());
         } catch (JpaException e) {
+            if (e.getStatusCode() != HttpStatus.INTERNAL_SERVER_ERROR.getCode()) {
+                // Unknown references (400), overlapping bookings (409) and a full or stalled booking queue (503) go back as they are
+                logger.warn("Appointment rejected: {}", e.getMessage());
+                throw new ApiException(e.getStatusCode(), e.getMessage());
+            }
             logger.error("JPA Exception while creating appointment: {}", e.getMessage());
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error creating appointment in the database");
         } catch (Exception e) {
@@ -105,6 +189,11 @@ public class AppointmentController implements IController<AppointmentDTO, Intege
                 throw new ApiException(HttpStatus.NOT_FOUND.getCode(), "Appointment not found or update failed");
             }
         } catch (JpaException e) {
+            if (e.getStatusCode() < HttpStatus.INTERNAL_SERVER_ERROR.getCode()) {
+                // Unknown references (400), overlapping bookings and concurrent changes (409) are the client's to fix
+                logger.warn("Appointment rejected: {}", e.getMessage());
+                throw new ApiException(e.getStatusCode(), e.getMessage());
+            }
             logger.error("JPA Exception while updating appointment: {}", e.getMessage());
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error updating appointment in the database");
         } catch (Exception e) {
@@ -160,4 +249,239 @@ public class AppointmentController implements IController<AppointmentDTO, Intege
             throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid or missing parameters in the appointment entity");
         }
     }
+    // Bulk import from a JSON array, or NDJSON with Content-Type: application/x-ndjson, e.g. /appointments/bulk?chunkSize=500
+    public void createAll(@NotNull Context ctx) {
+        try {
+            int chunkSize = ctx.queryParamAsClass("chunkSize", Integer.class)
+                    .check(n -> n > 0 && n <= AppointmentDAO.MAX_IMPORT_CHUNK_SIZE, "chunkSize must be between 1 and " + AppointmentDAO.MAX_IMPORT_CHUNK_SIZE)
+                    .getOrDefault(AppointmentDAO.DEFAULT_IMPORT_CHUNK_SIZE);
+            Iterator<AppointmentDTO> rows = NdjsonReader.isSent(ctx)
+                    ? NdjsonReader.open(ctx, AppointmentDTO.class)
+                    : Arrays.asList(parseArray(ctx)).iterator();
+
+            BulkImportResultDTO result = dao.createAll(rows, chunkSize);
+            ctx.status(HttpStatus.OK);  // 200 OK, the body tells which rows were created and which were rejected
+            ctx.json(result);
+            logger.info("Bulk import created {} of {} appointments.", result.getCreated(), result.getReceived());
+        } catch (ValidationException e) {
+            logger.warn("Invalid chunk size for bulk import: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid chunkSize parameter");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid bulk import body: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
+        } catch (JpaException e) {
+            logger.error("JPA Exception while importing appointments: {}", e.getMessage());
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error importing appointments into the database");
+        }
+    }
+
+    // Queue the booking for the next group commit and wait until its batch has committed
+    private AppointmentDTO awaitBooking(AppointmentDTO booking) {
+        try {
+            return bookingPipeline.submit(booking).orTimeout(BOOKING_TIMEOUT_SECONDS, TimeUnit.SECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof JpaException jpaException) {
+                throw jpaException;
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                // The batch may still commit, so the client is told to check rather than to simply retry
+                logger.warn("Booking not committed within {} seconds.", BOOKING_TIMEOUT_SECONDS);
+                throw new JpaException(503, "Booking is taking longer than expected, check your appointments before trying again.");
+            }
+            throw e;
+        }
+    }
+
+    private AppointmentDTO[] parseArray(Context ctx) {
+        try {
+            return ctx.bodyAsClass(AppointmentDTO[].class);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Body must be a JSON array of appointments, or NDJSON with Content-Type: application/x-ndjson");
+        }
+    }
+
+    // Free-slot search, e.g. /appointments/free-slots?specialization=DENTISTRY&cityId=1&from=2024-10-14T08:00&to=2024-10-21T00:00&duration=30
+    public void getFreeSlots(@NotNull Context ctx) {
+        try {
+            String specializationParam = ctx.queryParam("specialization");
+            Specialization specialization = specializationParam != null ? Specialization.valueOf(specializationParam.toUpperCase()) : null;
+            Long cityId = ctx.queryParamAsClass("cityId", Long.class).allowNullable().get();
+            LocalDateTime from = dateTimeParam(ctx, "from", LocalDateTime.now(OpeningScheduleIndex.CLINIC_ZONE));
+            LocalDateTime to = dateTimeParam(ctx, "to", from.plusDays(7));
+            int duration = ctx.queryParamAsClass("duration", Integer.class)
+                    .check(d -> d > 0 && d <= MAX_DURATION_MINUTES, "duration must be between 1 and " + MAX_DURATION_MINUTES + " minutes")
+                    .getOrDefault(Appointment.DEFAULT_DURATION_MINUTES);
+            int limit = ctx.queryParamAsClass("limit", Integer.class)
+                    .check(n -> n > 0 && n <= MAX_FREE_SLOT_COUNT, "limit must be between 1 and " + MAX_FREE_SLOT_COUNT)
+                    .getOrDefault(DEFAULT_FREE_SLOT_COUNT);
+            if (!from.isBefore(to) || from.plusDays(MAX_FREE_SLOT_DAYS).isBefore(to)) {
+                throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "to must be after from and at most " + MAX_FREE_SLOT_DAYS + " days later");
+            }
+
+            List<FreeSlotDTO> slots = dao.findFreeSlots(specialization, cityId, from, to, duration, limit);
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(slots);
+            logger.info("Successfully fetched {} free slots.", slots.size());
+        } catch (ValidationException e) {
+            logger.warn("Invalid parameters for free-slot search: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid cityId, duration or limit parameters");
+        } catch (DateTimeParseException e) {
+            logger.warn("Invalid date for free-slot search: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "from and to must be ISO date-times, e.g. 2024-10-14T08:00");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid specialization for free-slot search: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Unknown specialization");
+        }
+    }
+
+    // Appointment counts by status, e.g. /appointments/stats?veterinarianId=1&day=2024-10-10 or /appointments/stats?day=2024-10-10
+    public void getStats(@NotNull Context ctx) {
+        try {
+            Long clinicId = ctx.queryParamAsClass("clinicId", Long.class).allowNullable().get();
+            Long veterinarianId = ctx.queryParamAsClass("veterinarianId", Long.class).allowNullable().get();
+            String dayParam = ctx.queryParam("day");
+            LocalDate day = dayParam != null ? LocalDate.parse(dayParam) : null;
+            if (clinicId != null && veterinarianId != null) {
+                throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Give either clinicId or veterinarianId, not both");
+            }
+
+            AppointmentStatsDTO stats = dao.readStats(clinicId, veterinarianId, day);
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(stats);
+            logger.info("Successfully fetched appointment statistics.");
+        } catch (ValidationException e) {
+            logger.warn("Invalid parameters for appointment statistics: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid clinicId or veterinarianId parameters");
+        } catch (DateTimeParseException e) {
+            logger.warn("Invalid day for appointment statistics: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "day must be an ISO date, e.g. 2024-10-10");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Incomplete appointment statistics request: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
+        }
+    }
+
+    // Change the status of one appointment, body {"status": "COMPLETED", "expected": "SCHEDULED"} (expected is optional)
+    public void updateStatus(@NotNull Context ctx) {
+        try {
+            Long id = ctx.pathParamAsClass("id", Long.class).get();
+            StatusTransitionDTO transition = ctx.bodyAsClass(StatusTransitionDTO.class);
+            StatusTransitionResultDTO result = dao.transitionStatus(id, expectedStatus(transition), targetStatus(transition));
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(result);
+            logger.info("Appointment with ID {} moved to {}.", id, result.getTo());
+        } catch (ValidationException e) {
+            logger.warn("Invalid appointment ID for status change: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Not a valid id");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid status change: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
+        } catch (JpaException e) {
+            throw statusChangeFailed(e);
+        }
+    }
+
+    // Change the status of every matching appointment, e.g. complete today's appointments of a clinic:
+    // PUT /appointments/status?clinicId=1&day=2024-10-10 with body {"status": "COMPLETED"}
+    public void updateStatuses(@NotNull Context ctx) {
+        try {
+            Long clinicId = ctx.queryParamAsClass("clinicId", Long.class).allowNullable().get();
+            Long veterinarianId = ctx.queryParamAsClass("veterinarianId", Long.class).allowNullable().get();
+            String dayParam = ctx.queryParam("day");
+            LocalDate day = dayParam != null ? LocalDate.parse(dayParam) : null;
+            StatusTransitionDTO transition = ctx.bodyAsClass(StatusTransitionDTO.class);
+
+            StatusTransitionResultDTO result = dao.transitionStatuses(clinicId, veterinarianId, day,
+                    expectedStatus(transition), targetStatus(transition));
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(result);
+            logger.info("Moved {} appointments to {}.", result.getUpdated(), result.getTo());
+        } catch (ValidationException e) {
+            logger.warn("Invalid parameters for status change: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid clinicId or veterinarianId parameters");
+        } catch (DateTimeParseException e) {
+            logger.warn("Invalid day for status change: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "day must be an ISO date, e.g. 2024-10-10");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid status change: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
+        } catch (JpaException e) {
+            throw statusChangeFailed(e);
+        }
+    }
+
+    private static AppointmentStatus targetStatus(StatusTransitionDTO transition) {
+        if (transition == null || transition.getStatus() == null) {
+            throw new IllegalArgumentException("status is required");
+        }
+        return AppointmentStatus.valueOf(transition.getStatus());
+    }
+
+    private static AppointmentStatus expectedStatus(StatusTransitionDTO transition) {
+        return transition != null && transition.getExpected() != null ? AppointmentStatus.valueOf(transition.getExpected()) : null;
+    }
+
+    private static ApiException statusChangeFailed(JpaException e) {
+        if (e.getStatusCode() < HttpStatus.INTERNAL_SERVER_ERROR.getCode()) {
+            // Transitions the state machine forbids (400), unknown appointments (404) and lost races (409)
+            logger.warn("Status change rejected: {}", e.getMessage());
+            return new ApiException(e.getStatusCode(), e.getMessage());
+        }
+        logger.error("JPA Exception while changing appointment status: {}", e.getMessage());
+        return new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error changing appointment status in the database");
+    }
+
+    // Calendar of a clinic, e.g. /appointments/clinic/1?from=2024-10-14T00:00&to=2024-10-21T00:00 (defaults to the coming week)
+    public void getClinicCalendar(@NotNull Context ctx) {
+        readCalendar(ctx, "clinicId", "clinic", dao::findByClinic);
+    }
+
+    public void getVeterinarianCalendar(@NotNull Context ctx) {
+        readCalendar(ctx, "veterinarianId", "veterinarian", dao::findByVeterinarian);
+    }
+
+    public void getClientCalendar(@NotNull Context ctx) {
+        readCalendar(ctx, "clientId", "client", dao::findByClient);
+    }
+
+    public void getAnimalCalendar(@NotNull Context ctx) {
+        readCalendar(ctx, "animalId", "animal", dao::findByAnimal);
+    }
+
+    @FunctionalInterface
+    private interface CalendarQuery {
+        List<AppointmentDTO> find(Long ownerId, LocalDateTime from, LocalDateTime to);
+    }
+
+    private void readCalendar(Context ctx, String pathParam, String owner, CalendarQuery query) {
+        try {
+            Long ownerId = ctx.pathParamAsClass(pathParam, Long.class).get();
+            LocalDateTime from = dateTimeParam(ctx, "from", LocalDate.now(OpeningScheduleIndex.CLINIC_ZONE).atStartOfDay());
+            LocalDateTime to = dateTimeParam(ctx, "to", from.plusDays(7));
+            if (!from.isBefore(to) || from.plusDays(MAX_CALENDAR_DAYS).isBefore(to)) {
+                throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "to must be after from and at most " + MAX_CALENDAR_DAYS + " days later");
+            }
+
+            List<AppointmentDTO> appointments = query.find(ownerId, from, to);
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(appointments);
+            logger.info("Successfully fetched {} appointments for {} {}.", appointments.size(), owner, ownerId);
+        } catch (ValidationException e) {
+            logger.warn("Invalid {} ID for calendar: {}", owner, e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid " + owner + " ID");
+        } catch (DateTimeParseException e) {
+            logger.warn("Invalid date for {} calendar: {}", owner, e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "from and to must be ISO date-times, e.g. 2024-10-14T08:00");
+        } catch (JpaException e) {
+            logger.error("JPA Exception while fetching the {} calendar: {}", owner, e.getMessage());
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching appointments from the database");
+        }
+    }
+
+    // ISO local date-time query parameter, throws a DateTimeParseException for malformed values
+    private static LocalDateTime dateTimeParam(Context ctx, String name, LocalDateTime defaultValue) {
+        String value = ctx.queryParam(name);
+        return value != null ? LocalDateTime.parse(value) : defaultValue;
+    }
+
 }
\ No newline at end of file
@@ -4,16 +4,21 @@ import dat.config.HibernateConfig;
 import dat.controller.IController;
 import dat.dao.impl.ClientDAO;
 import dat.dto.ClientDTO;
+import dat.dto.PageDTO;
 import dat.exception.ApiException;
 import dat.exception.JpaException;
+import dat.util.ETags;
+import dat.util.NdjsonWriter;
+import dat.util.Pagination;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import io.javalin.validation.ValidationException;
 import jakarta.persistence.EntityManagerFactory;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.util.Map;
 
 public class ClientController implements IController<ClientDTO, Integer> {
 
@@ -28,9 +33,26 @@ public class ClientController implements IController<ClientDTO, Integer> {
     @Override
     public void read(@NotNull Context ctx) {
         try {
-            int id = ctx.pathParamAsClass("id", Integer.class)
-                    .check(this::validatePrimaryKey, "Not a valid id")
-                    .get();
+            int id = ctx.pathParamAsClass("id", Integer.class).get();
+
+            // Version-only lookup, an unchanged client is answered with 304 without loading it
+            Long version = dao.readVersion(id);
+            if (version == null) {
+                logger.warn("Client with ID {} not found.", id);
+                throw new ApiException(HttpStatus.NOT_FOUND.getCode(), "Client not found");
+            }
+            if (ETags.notModified(ctx, version)) {
+                logger.info("Client with ID {} not modified.", id);
+                return;
+            }
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                Map<String, Object> client = dao.read(id, ClientDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(client);
+                logger.info("Client with ID {} successfully retrieved with fields {}.", id, fields);
+                return;
+            }
             ClientDTO clientDTO = dao.read(id);
 
             if (clientDTO != null) {
@@ -45,6 +67,9 @@ public class ClientController implements IController<ClientDTO, Integer> {
             logger.error("API Exception while fetching client: {}", e.getMessage());
             ctx.status(e.getStatusCode());
             ctx.json(e.getMessageRecord());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for client: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching client: {}", e.getMessage());
             ctx.status(e.getStatusCode());
@@ -58,10 +83,32 @@ public class ClientController implements IController<ClientDTO, Integer> {
     @Override
     public void readAll(@NotNull Context ctx) {
         try {
-            List<ClientDTO> clientDTOS = dao.readAll();
+            if (NdjsonWriter.isRequested(ctx)) {
+                try (NdjsonWriter<ClientDTO> writer = NdjsonWriter.open(ctx)) {
+                    dao.streamAll(writer);
+                    logger.info("Successfully streamed {} clients as NDJSON.", writer.getCount());
+                }
+                return;
+            }
+            Pagination.PageRequest pageRequest = Pagination.fromQuery(ctx);
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                PageDTO<Map<String, Object>> page = dao.readPage(pageRequest.after(), pageRequest.limit(), ClientDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(page);
+                logger.info("Successfully fetched a page of {} clients with fields {}.", page.getItems().size(), fields);
+                return;
+            }
+            PageDTO<ClientDTO> page = dao.readPage(pageRequest.after(), pageRequest.limit());
             ctx.status(HttpStatus.OK);  // 200 OK
-            ctx.json(clientDTOS);
-            logger.info("Successfully fetched all clients.");
+            ctx.json(page);
+            logger.info("Successfully fetched a page of {} clients.", page.getItems().size());
+        } catch (ValidationException e) {
+            logger.warn("Invalid paging parameters for clients: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid after or limit parameters");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for clients: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching all clients: {}", e.getMessage());
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching clients from the database");
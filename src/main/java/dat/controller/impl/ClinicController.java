@@ -4,23 +4,39 @@ import dat.config.HibernateConfig;
 import dat.controller.IController;
 import dat.dao.impl.AppointmentDAO;
 import dat.dao.impl.ClinicDAO;
+import dat.dao.impl.VeterinarianDAO;
+import dat.dto.AppointmentStatsDTO;
 import dat.dto.ClinicDTO;
-import dat.entities.Appointment;
+import dat.dto.NearbyClinicDTO;
+import dat.dto.OpeningHoursDTO;
+import dat.dto.OpeningStatusDTO;
+import dat.dto.PageDTO;
 import dat.exception.ApiException;
 import dat.exception.JpaException;
+import dat.util.ETags;
+import dat.util.NdjsonWriter;
+import dat.util.Pagination;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import io.javalin.validation.ValidationException;
 import jakarta.persistence.EntityManagerFactory;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class ClinicController implements IController<ClinicDTO, Long> {  // Primary key type changed to Long
 
     private static final Logger logger = LoggerFactory.getLogger(ClinicController.class);  // Logger instance
+    private static final int DEFAULT_NEAREST_COUNT = 5;
+    private static final int MAX_NEAREST_COUNT = 50;
+    private static final int DEFAULT_EMERGENCY_COUNT = 10;
+    private static final int MIN_NAME_SEARCH_LENGTH = 3;  // Shorter ILIKE terms cannot use the trigram index
     private final ClinicDAO clinicDAO;
     private final AppointmentDAO appointmentDAO;
 
@@ -28,14 +44,32 @@ public class ClinicController implements IController<ClinicDTO, Long> {  // Prim
         EntityManagerFactory emf = HibernateConfig.getEntityManagerFactory();
         this.clinicDAO = ClinicDAO.getInstance(emf);
         this.appointmentDAO = AppointmentDAO.getInstance(emf);
+        VeterinarianDAO.getInstance(emf);  // Loads veterinarian availability into the emergency candidate index
     }
 
     @Override
     public void read(@NotNull Context ctx) {
         try {
-            Long id = ctx.pathParamAsClass("id", Long.class)  // Changed to Long
-                    .check(this::validatePrimaryKey, "Not a valid id")
-                    .get();
+            Long id = ctx.pathParamAsClass("id", Long.class).get();
+
+            // Version-only lookup, an unchanged clinic is answered with 304 without loading it
+            Long version = clinicDAO.readVersion(id);
+            if (version == null) {
+                logger.warn("Clinic with ID {} not found.", id);
+                throw new ApiException(HttpStatus.NOT_FOUND.getCode(), "Clinic not found");
+            }
+            if (ETags.notModified(ctx, version)) {
+                logger.info("Clinic with ID {} not modified.", id);
+                return;
+            }
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                Map<String, Object> clinic = clinicDAO.read(id, ClinicDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(clinic);
+                logger.info("Clinic with ID {} successfully retrieved with fields {}.", id, fields);
+                return;
+            }
             ClinicDTO clinicDTO = clinicDAO.read(id);
 
             if (clinicDTO != null) {
@@ -50,6 +84,9 @@ public class ClinicController implements IController<ClinicDTO, Long> {  // Prim
             logger.error("API Exception while fetching clinic: {}", e.getMessage());
             ctx.status(e.getStatusCode());
             ctx.json(e.getMessageRecord());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for clinic: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching clinic: {}", e.getMessage());
             ctx.status(e.getStatusCode());
@@ -63,10 +100,32 @@ public class ClinicController implements IController<ClinicDTO, Long> {  // Prim
     @Override
     public void readAll(@NotNull Context ctx) {
         try {
-            List<ClinicDTO> clinicDTOS = clinicDAO.readAll();
+            if (NdjsonWriter.isRequested(ctx)) {
+                try (NdjsonWriter<ClinicDTO> writer = NdjsonWriter.open(ctx)) {
+                    clinicDAO.streamAll(writer);
+                    logger.info("Successfully streamed {} clinics as NDJSON.", writer.getCount());
+                }
+                return;
+            }
+            Pagination.PageRequest pageRequest = Pagination.fromQuery(ctx);
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                PageDTO<Map<String, Object>> page = clinicDAO.readPage(pageRequest.after(), pageRequest.limit(), ClinicDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(page);
+                logger.info("Successfully fetched a page of {} clinics with fields {}.", page.getItems().size(), fields);
+                return;
+            }
+            PageDTO<ClinicDTO> page = clinicDAO.readPage(pageRequest.after(), pageRequest.limit());
             ctx.status(HttpStatus.OK);  // 200 OK
-            ctx.json(clinicDTOS);
-            logger.info("Successfully fetched all clinics.");
+            ctx.json(page);
+            logger.info("Successfully fetched a page of {} clinics.", page.getItems().size());
+        } catch (ValidationException e) {
+            logger.warn("Invalid paging parameters for clinics: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid after or limit parameters");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for clinics: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching all clinics: {}", e.getMessage());
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching clinics from database");
@@ -180,26 +239,158 @@ public class ClinicController implements IController<ClinicDTO, Long> {  // Prim
     }
 
 
-    // Fetch all clinics and filter by city using Java Streams
-    public void getClinicsByCity(Context ctx) {
-        long cityId = ctx.queryParamAsClass("cityId", Long.class).get(); // Get city ID from query parameter
+    // Fetch a page of clinics in a city, e.g. /clinics/search-by-city?cityId=1&after=20&limit=20
+    public void getClinicsByCity(@NotNull Context ctx) {
+        try {
+            long cityId = ctx.queryParamAsClass("cityId", Long.class).get();
+            Pagination.PageRequest pageRequest = Pagination.fromQuery(ctx);
+
+            PageDTO<ClinicDTO> page = clinicDAO.findByCity(cityId, pageRequest.after(), pageRequest.limit());
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(page);
+            logger.info("Successfully fetched {} clinics for city ID {}.", page.getItems().size(), cityId);
+        } catch (ValidationException e) {
+            logger.warn("Invalid parameters for clinic search by city: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid or missing cityId, after or limit parameters");
+        } catch (JpaException e) {
+            logger.error("JPA Exception while searching clinics by city: {}", e.getMessage());
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching clinics from database");
+        }
+    }
+
+    // Find the k clinics nearest to a coordinate, e.g. /clinics/nearest?lat=55.67&lon=12.56&k=5
+    public void getNearestClinics(@NotNull Context ctx) {
+        try {
+            double lat = ctx.queryParamAsClass("lat", Double.class)
+                    .check(l -> l >= -90 && l <= 90, "Latitude must be between -90 and 90")
+                    .get();
+            double lon = ctx.queryParamAsClass("lon", Double.class)
+                    .check(l -> l >= -180 && l <= 180, "Longitude must be between -180 and 180")
+                    .get();
+            int k = ctx.queryParamAsClass("k", Integer.class)
+                    .check(n -> n > 0 && n <= MAX_NEAREST_COUNT, "k must be between 1 and " + MAX_NEAREST_COUNT)
+                    .getOrDefault(DEFAULT_NEAREST_COUNT);
+
+            List<NearbyClinicDTO> nearbyClinics = clinicDAO.findNearest(lat, lon, k);
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(nearbyClinics);
+            logger.info("Successfully fetched {} clinics near ({}, {}).", nearbyClinics.size(), lat, lon);
+        } catch (ValidationException e) {
+            logger.warn("Invalid parameters for nearest clinic search: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid or missing lat, lon or k parameters");
+        } catch (JpaException e) {
+            logger.error("JPA Exception while searching for nearest clinics: {}", e.getMessage());
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching clinics from database");
+        }
+    }
+
+    // Emergency clinics open right now with an available veterinarian, e.g. /clinics/emergency?lat=55.67&lon=12.56&limit=5
+    public void getEmergencyClinics(@NotNull Context ctx) {
+        try {
+            Double lat = ctx.queryParamAsClass("lat", Double.class)
+                    .allowNullable()
+                    .check(l -> l >= -90 && l <= 90, "Latitude must be between -90 and 90")
+                    .get();
+            Double lon = ctx.queryParamAsClass("lon", Double.class)
+                    .allowNullable()
+                    .check(l -> l >= -180 && l <= 180, "Longitude must be between -180 and 180")
+                    .get();
+            int limit = ctx.queryParamAsClass("limit", Integer.class)
+                    .check(n -> n > 0 && n <= MAX_NEAREST_COUNT, "limit must be between 1 and " + MAX_NEAREST_COUNT)
+                    .getOrDefault(DEFAULT_EMERGENCY_COUNT);
+            if ((lat == null) != (lon == null)) {
+                throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "lat and lon must be given together");
+            }
+
+            List<NearbyClinicDTO> emergencyClinics = clinicDAO.findEmergencyClinics(lat, lon, limit);
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(emergencyClinics);
+            logger.info("Successfully fetched {} emergency clinics.", emergencyClinics.size());
+        } catch (ValidationException e) {
+            logger.warn("Invalid parameters for emergency clinic search: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid lat, lon or limit parameters");
+        } catch (JpaException e) {
+            logger.error("JPA Exception while searching for emergency clinics: {}", e.getMessage());
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching clinics from database");
+        }
+    }
 
-        // Retrieve all clinics and filter by city using streams
-        List<ClinicDTO> filteredClinics = clinicDAO.readAll().stream()
-                .filter(clinicDTO -> clinicDTO.getCityId() == cityId)  // Filter clinics by cityId
-                .collect(Collectors.toList());  // Collect the results to a list
+    // Add an opening hours entry to a clinic, e.g. {"weekday": "MONDAY", "openTime": "08:00", "closeTime": "17:00"}
+    public void addOpeningHours(@NotNull Context ctx) {
+        try {
+            Long id = ctx.pathParamAsClass("id", Long.class).get();
+            OpeningHoursDTO jsonRequest = ctx.bodyValidator(OpeningHoursDTO.class)
+                    .check(o -> o.getWeekday() != null, "Weekday must be set")
+                    .check(o -> o.getOpenTime() != null && o.getCloseTime() != null, "Opening and closing time must be set")
+                    .get();
+            OpeningHoursDTO openingHoursDTO = clinicDAO.addOpeningHours(id, jsonRequest);
+            ctx.status(HttpStatus.CREATED);  // 201 Created
+            ctx.json(openingHoursDTO);
+            logger.info("Successfully added opening hours to clinic with ID {}", id);
+        } catch (ValidationException e) {
+            logger.warn("Invalid opening hours: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid or missing parameters in the opening hours");
+        } catch (JpaException e) {
+            logger.error("JPA Exception while adding opening hours: {}", e.getMessage());
+            throw new ApiException(e.getStatusCode(), e.getMessage());
+        }
+    }
 
-        if (filteredClinics.isEmpty()) {
-            ctx.status(404).json("No clinics found for the given city.");
-        } else {
-            ctx.status(200).json(filteredClinics);
+    // Fetch a page of the clinics that are open right now, e.g. /clinics/open-now?after=40&limit=20
+    public void getOpenNow(@NotNull Context ctx) {
+        try {
+            Pagination.PageRequest pageRequest = Pagination.fromQuery(ctx);
+            PageDTO<ClinicDTO> page = clinicDAO.findOpenAt(ZonedDateTime.now(), pageRequest.after(), pageRequest.limit());
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(page);
+            logger.info("Successfully fetched a page of {} open clinics.", page.getItems().size());
+        } catch (ValidationException e) {
+            logger.warn("Invalid paging parameters for open clinics: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid after or limit parameters");
+        } catch (JpaException e) {
+            logger.error("JPA Exception while fetching open clinics: {}", e.getMessage());
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching clinics from database");
         }
     }
 
-    public void addOpeningHours(@NotNull Context context) {
+    // Whether a clinic is open now, and when it opens next
+    public void getNextOpening(@NotNull Context ctx) {
+        try {
+            Long id = ctx.pathParamAsClass("id", Long.class)
+                    .check(this::validatePrimaryKey, "Not a valid id")
+                    .get();
+            ZonedDateTime now = ZonedDateTime.now();
+            OpeningStatusDTO status = new OpeningStatusDTO(id, clinicDAO.isOpenAt(id, now), clinicDAO.findNextOpening(id, now).orElse(null));
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(status);
+        } catch (JpaException e) {
+            logger.error("JPA Exception while fetching next opening time: {}", e.getMessage());
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching clinic from database");
+        }
     }
 
-    public void getClinicsByName(@NotNull Context context) {
+    // Search clinics by (partial or misspelled) name, best matches first, e.g. /clinics/search-by-name?name=aarhus&limit=10
+    public void getClinicsByName(@NotNull Context ctx) {
+        try {
+            String name = ctx.queryParamAsClass("name", String.class)
+                    .check(n -> n.trim().length() >= MIN_NAME_SEARCH_LENGTH, "name must be at least " + MIN_NAME_SEARCH_LENGTH + " characters")
+                    .get()
+                    .trim();
+            int limit = ctx.queryParamAsClass("limit", Integer.class)
+                    .check(l -> l > 0 && l <= Pagination.MAX_PAGE_SIZE, "limit must be between 1 and " + Pagination.MAX_PAGE_SIZE)
+                    .getOrDefault(Pagination.DEFAULT_PAGE_SIZE);
+
+            List<ClinicDTO> clinics = clinicDAO.searchByName(name, limit);
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(clinics);
+            logger.info("Successfully fetched {} clinics matching '{}'.", clinics.size(), name);
+        } catch (ValidationException e) {
+            logger.warn("Invalid parameters for clinic search by name: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid or missing name or limit parameters");
+        } catch (JpaException e) {
+            logger.error("JPA Exception while searching clinics by name: {}", e.getMessage());
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching clinics from database");
+        }
     }
 
     public void addVeterinarianToClinic(@NotNull Context context) {
@@ -211,22 +402,23 @@ public class ClinicController implements IController<ClinicDTO, Long> {  // Prim
     public void removeVeterinarianFromClinic(@NotNull Context context) {
     }
 
-    
-    
-    
-    
-   /* // Get total number of appointments for a specific clinic using streams
-    public void getAppointmentCount(Context ctx) {
-        long clinicId = ctx.pathParamAsClass("id", Long.class).get();
-
-        // Fetch all appointments for this clinic
-        List<Appointment> appointments = appointmentDAO.findByClinicId(clinicId);
-
-        // Use stream to count appointments
-        long appointmentCount = appointments.stream().count();
+    // Appointment counts of a clinic by status, e.g. /clinics/1/appointment-stats?day=2024-10-10 (all days when omitted)
+    public void getAppointmentStats(@NotNull Context ctx) {
+        try {
+            Long clinicId = ctx.pathParamAsClass("id", Long.class).get();
+            String dayParam = ctx.queryParam("day");
+            LocalDate day = dayParam != null ? LocalDate.parse(dayParam) : null;
 
-        // Respond with the total count
-        ctx.json("Total appointments: " + appointmentCount);
-        ctx.status(200);
-    }*/
+            AppointmentStatsDTO stats = appointmentDAO.readStats(clinicId, null, day);
+            ctx.status(HttpStatus.OK);  // 200 OK
+            ctx.json(stats);
+            logger.info("Successfully fetched appointment statistics for clinic {}.", clinicId);
+        } catch (ValidationException e) {
+            logger.warn("Invalid clinic ID for appointment statistics: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid clinic ID");
+        } catch (DateTimeParseException e) {
+            logger.warn("Invalid day for appointment statistics: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "day must be an ISO date, e.g. 2024-10-10");
+        }
+    }
 }
\ No newline at end of file
@@ -4,16 +4,21 @@ import dat.config.HibernateConfig;
 import dat.controller.IController;
 import dat.dao.impl.VeterinarianDAO;
 import dat.dto.VeterinarianDTO;
+import dat.dto.PageDTO;
 import dat.exception.ApiException;
 import dat.exception.JpaException;
+import dat.util.ETags;
+import dat.util.NdjsonWriter;
+import dat.util.Pagination;
 import io.javalin.http.Context;
 import io.javalin.http.HttpStatus;
+import io.javalin.validation.ValidationException;
 import jakarta.persistence.EntityManagerFactory;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
+import java.util.Map;
 
 public class VeterinarianController implements IController<VeterinarianDTO, Integer> {
 
@@ -28,9 +33,26 @@ public class VeterinarianController implements IController<VeterinarianDTO, Inte
     @Override
     public void read(@NotNull Context ctx) {
         try {
-            int id = ctx.pathParamAsClass("id", Integer.class)
-                    .check(this::validatePrimaryKey, "Not a valid id")
-                    .get();
+            int id = ctx.pathParamAsClass("id", Integer.class).get();
+
+            // Version-only lookup, an unchanged veterinarian is answered with 304 without loading it
+            Long version = dao.readVersion(id);
+            if (version == null) {
+                logger.warn("Veterinarian with ID {} not found.", id);
+                throw new ApiException(HttpStatus.NOT_FOUND.getCode(), "Veterinarian not found");
+            }
+            if (ETags.notModified(ctx, version)) {
+                logger.info("Veterinarian with ID {} not modified.", id);
+                return;
+            }
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                Map<String, Object> veterinarian = dao.read(id, VeterinarianDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(veterinarian);
+                logger.info("Veterinarian with ID {} successfully retrieved with fields {}.", id, fields);
+                return;
+            }
             VeterinarianDTO veterinarianDTO = dao.read(id);
 
             if (veterinarianDTO != null) {
@@ -45,6 +67,9 @@ public class VeterinarianController implements IController<VeterinarianDTO, Inte
             logger.error("API Exception while fetching veterinarian: {}", e.getMessage());
             ctx.status(e.getStatusCode());
             ctx.json(e.getMessageRecord());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for veterinarian: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching veterinarian: {}", e.getMessage());
             ctx.status(e.getStatusCode());
@@ -58,10 +83,32 @@ public class VeterinarianController implements IController<VeterinarianDTO, Inte
     @Override
     public void readAll(@NotNull Context ctx) {
         try {
-            List<VeterinarianDTO> veterinarianDTOS = dao.readAll();
+            if (NdjsonWriter.isRequested(ctx)) {
+                try (NdjsonWriter<VeterinarianDTO> writer = NdjsonWriter.open(ctx)) {
+                    dao.streamAll(writer);
+                    logger.info("Successfully streamed {} veterinarians as NDJSON.", writer.getCount());
+                }
+                return;
+            }
+            Pagination.PageRequest pageRequest = Pagination.fromQuery(ctx);
+            String fields = ctx.queryParam("fields");
+            if (fields != null) {
+                PageDTO<Map<String, Object>> page = dao.readPage(pageRequest.after(), pageRequest.limit(), VeterinarianDAO.PROJECTION.select(fields));
+                ctx.status(HttpStatus.OK);  // 200 OK
+                ctx.json(page);
+                logger.info("Successfully fetched a page of {} veterinarians with fields {}.", page.getItems().size(), fields);
+                return;
+            }
+            PageDTO<VeterinarianDTO> page = dao.readPage(pageRequest.after(), pageRequest.limit());
             ctx.status(HttpStatus.OK);  // 200 OK
-            ctx.json(veterinarianDTOS);
-            logger.info("Successfully fetched all veterinarians.");
+            ctx.json(page);
+            logger.info("Successfully fetched a page of {} veterinarians.", page.getItems().size());
+        } catch (ValidationException e) {
+            logger.warn("Invalid paging parameters for veterinarians: {}", e.getErrors());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), "Invalid after or limit parameters");
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid fields for veterinarians: {}", e.getMessage());
+            throw new ApiException(HttpStatus.BAD_REQUEST.getCode(), e.getMessage());
         } catch (JpaException e) {
             logger.error("JPA Exception while fetching all veterinarians: {}", e.getMessage());
             throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR.getCode(), "Error fetching veterinarians from the database");
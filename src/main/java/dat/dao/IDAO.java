@@ -1,11 +1,24 @@
 package dat.dao;
 
+import dat.dto.PageDTO;
+
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface IDAO<T, I> {
 
+    int STREAM_FETCH_SIZE = 500;  // Rows per JDBC round trip, and per persistence context clear, in streamAll
+
     T read(I i);
+    Long readVersion(I i);  // Only the @Version column, null when the row does not exist
     List<T> readAll();
+    PageDTO<T> readPage(Long after, int limit);  // Keyset pagination: rows with ID > after, ordered by ID
+    long streamAll(Consumer<T> sink);  // Push every row to the sink in ID order without materialising the table
+
+    // Sparse fieldset variants (?fields=), only the selected columns are queried
+    Map<String, Object> read(I i, Projection.Selection fields);
+    PageDTO<Map<String, Object>> readPage(Long after, int limit, Projection.Selection fields);
     T create(T t);
     T update(I i, T t);
     void delete(I i);
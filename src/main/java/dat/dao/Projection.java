@@ -0,0 +1,115 @@
+package dat.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Whitelist of the fields a client may request with ?fields=, each mapped to a JPQL path. A selection
+ * is turned into a SELECT of just those paths, so unrequested columns are never read and foreign keys
+ * such as c.city.id are read without joining the association. The ID is always selected since it is
+ * the pagination cursor.
+ */
+public class Projection {
+
+    public static final String ID = "id";
+
+    private final String entityName;
+    private final String alias;
+    private final Map<String, String> columns = new LinkedHashMap<>();  // Field name -> JPQL path, in DTO order
+    private final Set<String> associations = new LinkedHashSet<>();  // Fields the DAO loads with a separate query
+
+    public Projection(String entityName, String alias) {
+        this.entityName = entityName;
+        this.alias = alias;
+        column(ID, alias + ".id");
+    }
+
+    public Projection column(String field, String path) {
+        columns.put(field, path);
+        return this;
+    }
+
+    public Projection association(String field) {
+        associations.add(field);
+        return this;
+    }
+
+    // Resolve a comma separated field list, throws IllegalArgumentException for fields that are not selectable
+    public Selection select(String fields) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!columns.containsKey(name) && !associations.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', allowed fields are " + allowedFields());
+            }
+            requested.add(name);
+        }
+
+        List<String> selectedColumns = new ArrayList<>();
+        List<String> selectedAssociations = new ArrayList<>();
+        for (String column : columns.keySet()) {
+            if (column.equals(ID) || requested.contains(column)) {
+                selectedColumns.add(column);
+            }
+        }
+        for (String association : associations) {
+            if (requested.contains(association)) {
+                selectedAssociations.add(association);
+            }
+        }
+        return new Selection(this, Collections.unmodifiableList(selectedColumns), Collections.unmodifiableList(selectedAssociations));
+    }
+
+    public List<String> allowedFields() {
+        List<String> allowed = new ArrayList<>(columns.keySet());
+        allowed.addAll(associations);
+        return allowed;
+    }
+
+    public static Long idOf(Map<String, Object> row) {
+        return (Long) row.get(ID);
+    }
+
+    public record Selection(Projection projection, List<String> columns, List<String> associations) {
+
+        // Build "SELECT <columns> FROM <Entity> <alias> <clause>", the clause adds WHERE / ORDER BY
+        public TypedQuery<Tuple> query(EntityManager em, String clause) {
+            StringBuilder jpql = new StringBuilder("SELECT ");
+            for (int i = 0; i < columns.size(); i++) {
+                String column = columns.get(i);
+                jpql.append(i > 0 ? ", " : "").append(projection.columns.get(column)).append(" AS ").append(column);
+            }
+            jpql.append(" FROM ").append(projection.entityName).append(' ').append(projection.alias).append(' ').append(clause);
+            return em.createQuery(jpql.toString(), Tuple.class);
+        }
+
+        public Map<String, Object> toMap(Tuple tuple) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String column : columns) {
+                row.put(column, tuple.get(column));
+            }
+            return row;
+        }
+
+        public boolean includes(String field) {
+            return columns.contains(field) || associations.contains(field);
+        }
+
+        @Override
+        public String toString() {
+            return String.join(",", columns) + (associations.isEmpty() ? "" : "," + String.join(",", associations));
+        }
+    }
+}
@@ -1,20 +1,29 @@
 package dat.dao.impl;
 
 import dat.dao.IDAO;
+import dat.dao.Projection;
 import dat.dto.AnimalDTO;
+import dat.dto.PageDTO;
 import dat.entities.Animal;
 import dat.entities.Client;
 import dat.exception.JpaException;
+import dat.util.Pagination;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.PersistenceException;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @NoArgsConstructor(access = AccessLevel.PUBLIC)
 public class AnimalDAO implements IDAO<AnimalDTO, Integer> {
@@ -22,6 +31,14 @@ public class AnimalDAO implements IDAO<AnimalDTO, Integer> {
     private static final Logger logger = LoggerFactory.getLogger(AnimalDAO.class);  // Logger instance
     private static AnimalDAO instance;
     private static EntityManagerFactory emf;
+    // Fields selectable with ?fields=, named as in AnimalDTO
+    public static final Projection PROJECTION = new Projection("Animal", "a")
+            .column("name", "a.name")
+            .column("species", "a.species")
+            .column("breed", "a.breed")
+            .column("age", "a.age")
+            .column("ownerId", "a.owner.id")
+            .column("medicalHistory", "a.medicalHistory");
 
     public AnimalDAO(EntityManagerFactory emf) {
         AnimalDAO.emf = emf;
@@ -81,6 +98,23 @@ public class AnimalDAO implements IDAO<AnimalDTO, Integer> {
         }
     }
 
+    @Override
+    public Long readVersion(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT a.version FROM Animal a WHERE a.id = :id", Long.class)
+                    .setParameter("id", id.longValue())
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
+        } catch (PersistenceException e) {
+            logger.error("Error reading animal version from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading animal from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public List<AnimalDTO> readAll() {
         EntityManager em = emf.createEntityManager();
@@ -94,6 +128,102 @@ public class AnimalDAO implements IDAO<AnimalDTO, Integer> {
         }
     }
 
+    @Override
+    public PageDTO<AnimalDTO> readPage(Long after, int limit) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<AnimalDTO> animals = em.createQuery(
+                            "SELECT a FROM Animal a WHERE a.id > :after ORDER BY a.id", Animal.class)
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultStream()
+                    .map(AnimalDTO::new)
+                    .collect(Collectors.toList());
+            logger.info("Successfully retrieved a page of {} animals.", Math.min(animals.size(), pageSize));
+            return PageDTO.of(animals, pageSize, AnimalDTO::getId);
+        } catch (PersistenceException e) {
+            logger.error("Error fetching animals from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching animals from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public long streamAll(Consumer<AnimalDTO> sink) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();  // PostgreSQL only honours the fetch size inside a transaction
+            long count = 0;
+            try (Stream<Animal> rows = em.createQuery(
+                            "SELECT a FROM Animal a ORDER BY a.id", Animal.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                for (Iterator<Animal> it = rows.iterator(); it.hasNext(); ) {
+                    sink.accept(new AnimalDTO(it.next()));
+                    if (++count % STREAM_FETCH_SIZE == 0) {
+                        em.clear();  // Keep the persistence context from growing with the table
+                    }
+                }
+            }
+            em.getTransaction().commit();
+            logger.info("Successfully streamed {} animals.", count);
+            return count;
+        } catch (PersistenceException e) {
+            logger.error("Error streaming animals from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error streaming animals from the database.");
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    @Override
+    public Map<String, Object> read(Integer id, Projection.Selection fields) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Map<String, Object> row = fields.query(em, "WHERE a.id = :id")
+                    .setParameter("id", id.longValue())
+                    .getResultStream()
+                    .findFirst()
+                    .map(fields::toMap)
+                    .orElseThrow(() -> new JpaException(404, "Animal not found for ID: " + id));
+            logger.info("Animal with ID {} successfully retrieved with fields {}.", id, fields);
+            return row;
+        } catch (PersistenceException e) {
+            logger.error("Error reading animal from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading animal from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public PageDTO<Map<String, Object>> readPage(Long after, int limit, Projection.Selection fields) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Map<String, Object>> rows = fields.query(em, "WHERE a.id > :after ORDER BY a.id")
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultStream()
+                    .map(fields::toMap)
+                    .collect(Collectors.toList());
+            PageDTO<Map<String, Object>> page = PageDTO.of(rows, pageSize, Projection::idOf);
+            logger.info("Successfully retrieved a page of {} animals with fields {}.", page.getItems().size(), fields);
+            return page;
+        } catch (PersistenceException e) {
+            logger.error("Error fetching animals from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching animals from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public AnimalDTO update(Integer id, AnimalDTO animalDTO) {
         EntityManager em = emf.createEntityManager();
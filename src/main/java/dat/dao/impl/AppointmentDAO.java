@@ -1,23 +1,61 @@
 package dat.dao.impl;
 
 import dat.dao.IDAO;
+import dat.dao.Projection;
 import dat.dto.AppointmentDTO;
+import dat.dto.AppointmentStatsDTO;
+import dat.dto.BulkImportResultDTO;
+import dat.dto.FreeSlotDTO;
+import dat.dto.PageDTO;
+import dat.dto.StatusTransitionResultDTO;
 import dat.entities.Appointment;
 import dat.entities.Animal;
 import dat.entities.Veterinarian;
 import dat.entities.Clinic;
 import dat.entities.Client;
+import dat.enums.AppointmentStatus;
+import dat.enums.Specialization;
 import dat.exception.JpaException;
+import dat.index.AppointmentStatsIndex;
+import dat.index.OpeningScheduleIndex;
+import dat.index.VeterinarianCalendarIndex;
+import dat.reminder.ReminderScheduler;
+import dat.util.Pagination;
+import dat.util.StripedLocks;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.OptimisticLockException;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.PersistenceException;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.hibernate.StaleStateException;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @NoArgsConstructor(access = AccessLevel.PUBLIC)
 public class AppointmentDAO implements IDAO<AppointmentDTO, Integer> {
@@ -25,6 +63,29 @@ public class AppointmentDAO implements IDAO<AppointmentDTO, Integer> {
     private static final Logger logger = LoggerFactory.getLogger(AppointmentDAO.class);  // Logger instance
     private static AppointmentDAO instance;
     private static EntityManagerFactory emf;
+    private static final VeterinarianCalendarIndex calendarIndex = VeterinarianCalendarIndex.getInstance();
+    private static final ReminderScheduler reminderScheduler = ReminderScheduler.getInstance();
+    private static final AppointmentStatsIndex statsIndex = AppointmentStatsIndex.getInstance();
+    // Serialises bookings per veterinarian, bookings for different veterinarians proceed in parallel
+    private static final StripedLocks bookingLocks = new StripedLocks(256);
+    private static final String EXCLUSION_VIOLATION = "23P01";  // SQLSTATE raised by appointments_no_overlap
+    public static final int DEFAULT_IMPORT_CHUNK_SIZE = 500;
+    public static final int MAX_IMPORT_CHUNK_SIZE = 5_000;
+
+    // Every DTO read selects the columns and foreign keys directly, the associations are never loaded
+    private static final String SELECT_DTO = "SELECT new dat.dto.AppointmentDTO(a.id, a.appointmentDateTime, a.durationMinutes, " +
+            "a.reason, a.status, a.clinic.id, a.client.id, a.animal.id, a.veterinarian.id) FROM Appointment a ";
+
+    // Fields selectable with ?fields=, named as in AppointmentDTO
+    public static final Projection PROJECTION = new Projection("Appointment", "a")
+            .column("appointmentDateTime", "a.appointmentDateTime")
+            .column("durationMinutes", "a.durationMinutes")
+            .column("reason", "a.reason")
+            .column("status", "a.status")
+            .column("clinicId", "a.clinic.id")
+            .column("clientId", "a.client.id")
+            .column("animalId", "a.animal.id")
+            .column("veterinarianId", "a.veterinarian.id");
 
     public AppointmentDAO(EntityManagerFactory emf) {
         AppointmentDAO.emf = emf;
@@ -34,69 +95,505 @@ public class AppointmentDAO implements IDAO<AppointmentDTO, Integer> {
         if (instance == null) {
             emf = _emf;
             instance = new AppointmentDAO();
+            instance.loadBookings();
+            instance.loadStats();
+            reminderScheduler.start(instance::forEachScheduled);
         }
         return instance;
     }
 
-    @Override
-    public AppointmentDTO create(AppointmentDTO appointmentDTO) {
+    // Load the upcoming scheduled appointments into the veterinarian calendars, from yesterday in case one runs past midnight
+    private void loadBookings() {
         EntityManager em = emf.createEntityManager();
         try {
-            em.getTransaction().begin();
-
-            // Fetch related entities (Clinic, Client, Animal, Veterinarian)
-            Animal animal = em.find(Animal.class, appointmentDTO.getAnimalId());
-            Veterinarian veterinarian = em.find(Veterinarian.class, appointmentDTO.getVeterinarianId());
-            Clinic clinic = em.find(Clinic.class, appointmentDTO.getClinicId());
-            Client client = em.find(Client.class, appointmentDTO.getClientId());
+            List<VeterinarianCalendarIndex.Booking> bookings = em.createQuery(
+                            "SELECT a.id, a.veterinarian.id, a.appointmentDateTime, a.durationMinutes FROM Appointment a " +
+                            "WHERE a.status = :status AND a.appointmentDateTime >= :since", Object[].class)
+                    .setParameter("status", AppointmentStatus.SCHEDULED)
+                    .setParameter("since", LocalDate.now(OpeningScheduleIndex.CLINIC_ZONE).minusDays(1).atStartOfDay())
+                    .getResultStream()
+                    .map(row -> new VeterinarianCalendarIndex.Booking((Long) row[0], (Long) row[1], (LocalDateTime) row[2], (Integer) row[3]))
+                    .toList();
+            calendarIndex.loadBookings(bookings);  // Drops the days before today
+            calendarIndex.startEviction();
+            logger.info("Veterinarian calendars loaded with {} bookings.", bookings.size());
+        } catch (PersistenceException e) {
+            logger.error("Error loading appointments from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error loading appointments from the database.");
+        } finally {
+            em.close();
+        }
+    }
 
-            // Validation
-            if (animal == null) {
-                logger.warn("Animal not found for ID: {}", appointmentDTO.getAnimalId());
-                throw new JpaException(400, "Animal not found");
+    // Stream the scheduled appointments starting in [from, to) for the reminder scheduler
+    private void forEachScheduled(LocalDateTime from, LocalDateTime to, BiConsumer<Long, LocalDateTime> action) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();  // PostgreSQL only honours the fetch size inside a transaction
+            try (Stream<Object[]> rows = em.createQuery(
+                            "SELECT a.id, a.appointmentDateTime FROM Appointment a " +
+                            "WHERE a.status = :status AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to", Object[].class)
+                    .setParameter("status", AppointmentStatus.SCHEDULED)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                    .getResultStream()) {
+                rows.forEach(row -> action.accept((Long) row[0], (LocalDateTime) row[1]));
             }
-            if (veterinarian == null) {
-                logger.warn("Veterinarian not found for ID: {}", appointmentDTO.getVeterinarianId());
-                throw new JpaException(400, "Veterinarian not found");
+            em.getTransaction().commit();
+        } catch (PersistenceException e) {
+            logger.error("Error loading appointments for reminders from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error loading appointments from the database.");
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
             }
-            if (clinic == null) {
-                logger.warn("Clinic not found for ID: {}", appointmentDTO.getClinicId());
-                throw new JpaException(400, "Clinic not found");
+            em.close();
+        }
+    }
+
+    // Count every appointment once per clinic, veterinarian, day and status
+    private void loadStats() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Object[]> rows = em.createQuery(
+                            "SELECT a.clinic.id, a.veterinarian.id, cast(a.appointmentDateTime as LocalDate), a.status, count(a) " +
+                            "FROM Appointment a GROUP BY a.clinic.id, a.veterinarian.id, cast(a.appointmentDateTime as LocalDate), a.status", Object[].class)
+                    .getResultList();
+            statsIndex.clear();
+            rows.forEach(row -> statsIndex.load(new AppointmentStatsIndex.Entry((Long) row[0], (Long) row[1], (LocalDate) row[2],
+                    (AppointmentStatus) row[3]), (Long) row[4]));
+            logger.info("Appointment statistics loaded from {} groups.", rows.size());
+        } catch (PersistenceException e) {
+            logger.error("Error loading appointment statistics from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error loading appointment statistics from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // Only scheduled appointments occupy a veterinarian and get reminders, completed and cancelled ones free the slots.
+    // before is the appointment as it was before the write, null for a new one.
+    private void appointmentChanged(AppointmentStatsIndex.Entry before, Appointment appointment) {
+        boolean scheduled = appointment.getStatus() == AppointmentStatus.SCHEDULED;
+        if (scheduled) {
+            calendarIndex.putBooking(appointment.getId(), appointment.getVeterinarian().getId(),
+                    appointment.getAppointmentDateTime(), appointment.getDurationMinutes());
+        } else {
+            calendarIndex.removeBooking(appointment.getId());
+        }
+        reminderScheduler.appointmentChanged(appointment.getId(), appointment.getAppointmentDateTime(), scheduled);
+        statsIndex.changed(before, statsEntry(appointment));
+    }
+
+    private void appointmentRemoved(Appointment appointment) {
+        calendarIndex.removeBooking(appointment.getId());
+        reminderScheduler.appointmentRemoved(appointment.getId());
+        statsIndex.changed(statsEntry(appointment), null);
+    }
+
+    private static AppointmentStatsIndex.Entry statsEntry(Appointment appointment) {
+        return new AppointmentStatsIndex.Entry(appointment.getClinic().getId(), appointment.getVeterinarian().getId(),
+                appointment.getAppointmentDateTime().toLocalDate(), appointment.getStatus());
+    }
+
+    // Validate the animal, veterinarian, clinic and client IDs of a write in a single round trip
+    private static void checkReferencesExist(EntityManager em, AppointmentDTO dto) {
+        requireId(dto.getAnimalId(), "Animal");
+        requireId(dto.getVeterinarianId(), "Veterinarian");
+        requireId(dto.getClinicId(), "Clinic");
+        requireId(dto.getClientId(), "Client");
+        Object[] found = (Object[]) em.createNativeQuery(
+                        "SELECT EXISTS (SELECT 1 FROM animals WHERE id = :animalId), " +
+                        "EXISTS (SELECT 1 FROM veterinarians WHERE id = :veterinarianId), " +
+                        "EXISTS (SELECT 1 FROM clinics WHERE id = :clinicId), " +
+                        "EXISTS (SELECT 1 FROM clients WHERE id = :clientId)")
+                .setParameter("animalId", dto.getAnimalId())
+                .setParameter("veterinarianId", dto.getVeterinarianId())
+                .setParameter("clinicId", dto.getClinicId())
+                .setParameter("clientId", dto.getClientId())
+                .getSingleResult();
+        requireFound(found[0], "Animal", dto.getAnimalId());
+        requireFound(found[1], "Veterinarian", dto.getVeterinarianId());
+        requireFound(found[2], "Clinic", dto.getClinicId());
+        requireFound(found[3], "Client", dto.getClientId());
+    }
+
+    private static void requireId(Long id, String entity) {
+        if (id == null) {
+            logger.warn("{} ID missing from appointment", entity);
+            throw new JpaException(400, entity + " ID is required");
+        }
+    }
+
+    private static void requireFound(Object exists, String entity, Long id) {
+        if (!Boolean.TRUE.equals(exists)) {
+            logger.warn("{} not found for ID: {}", entity, id);
+            throw new JpaException(400, entity + " not found");
+        }
+    }
+
+    // Must run while holding the veterinarian's booking lock, so no other booking can slip in before the commit
+    private void checkNoOverlap(Appointment appointment) {
+        if (appointment.getStatus() == AppointmentStatus.SCHEDULED
+                && calendarIndex.overlaps(appointment.getVeterinarian().getId(), appointment.getAppointmentDateTime(),
+                appointment.getDurationMinutes(), appointment.getId())) {
+            logger.warn("Veterinarian {} is already booked at {}", appointment.getVeterinarian().getId(), appointment.getAppointmentDateTime());
+            throw new JpaException(409, "Veterinarian is already booked at that time.");
+        }
+    }
+
+    // The in-memory check only covers this instance and upcoming bookings, the exclusion constraint covers the rest
+    private static boolean isOverlapViolation(PersistenceException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
             }
-            if (client == null) {
-                logger.warn("Client not found for ID: {}", appointmentDTO.getClientId());
-                throw new JpaException(400, "Client not found");
+        }
+        return false;
+    }
+
+    // The appointment's version changed since it was read, e.g. by a status transition committed in between
+    private static boolean isConcurrentUpdate(PersistenceException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleStateException) {
+                return true;
             }
+        }
+        return false;
+    }
+
+    // Appointment counts by status for a clinic or a veterinarian (or all appointments), optionally on one day
+    public AppointmentStatsDTO readStats(Long clinicId, Long veterinarianId, LocalDate day) {
+        long[] counts;
+        if (clinicId != null) {
+            counts = day != null ? statsIndex.forClinicOnDay(clinicId, day) : statsIndex.forClinic(clinicId);
+        } else if (veterinarianId != null) {
+            counts = day != null ? statsIndex.forVeterinarianOnDay(veterinarianId, day) : statsIndex.forVeterinarian(veterinarianId);
+        } else if (day != null) {
+            counts = statsIndex.forDay(day);
+        } else {
+            throw new IllegalArgumentException("A clinic, a veterinarian or a day is required");
+        }
+        return new AppointmentStatsDTO(counts);
+    }
+
+    /**
+     * Earliest free slot per matching veterinarian within [from, to), answered from the in-memory calendars.
+     * Times are clinic wall-clock times and slots in the past are never offered.
+     */
+    public List<FreeSlotDTO> findFreeSlots(Specialization specialization, Long cityId, LocalDateTime from, LocalDateTime to,
+                                           int durationMinutes, int limit) {
+        LocalDateTime now = LocalDateTime.now(OpeningScheduleIndex.CLINIC_ZONE);
+        LocalDateTime start = from.isBefore(now) ? now : from;
+        if (!start.isBefore(to)) {
+            return List.of();
+        }
+        List<FreeSlotDTO> slots = calendarIndex.findFreeSlots(specialization, cityId, start, to, durationMinutes, limit).stream()
+                .map(slot -> new FreeSlotDTO(slot.veterinarianId(), slot.clinicId(), slot.start(), slot.end()))
+                .collect(Collectors.toList());
+        logger.info("Found {} free slots of {} minutes between {} and {}.", slots.size(), durationMinutes, start, to);
+        return slots;
+    }
+
+    @Override
+    public AppointmentDTO create(AppointmentDTO appointmentDTO) {
+        Lock lock = bookingLocks.forKey(appointmentDTO.getVeterinarianId());
+        lock.lock();
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+
+            // One existence query for all four references, then attach them without loading the rows
+            checkReferencesExist(em, appointmentDTO);
+            Animal animal = em.getReference(Animal.class, appointmentDTO.getAnimalId());
+            Veterinarian veterinarian = em.getReference(Veterinarian.class, appointmentDTO.getVeterinarianId());
+            Clinic clinic = em.getReference(Clinic.class, appointmentDTO.getClinicId());
+            Client client = em.getReference(Client.class, appointmentDTO.getClientId());
 
             // Convert DTO to Entity and pass required entities
             Appointment appointment = appointmentDTO.toEntity(clinic, client, animal, veterinarian);
+            checkNoOverlap(appointment);
 
             em.persist(appointment);
             em.getTransaction().commit();
+            appointmentChanged(null, appointment);
             logger.info("Appointment created successfully with ID {}", appointment.getId());
             return new AppointmentDTO(appointment);
         } catch (PersistenceException e) {
             if (em.getTransaction().isActive()) {
                 em.getTransaction().rollback();
             }
+            if (isOverlapViolation(e)) {
+                throw new JpaException(409, "Veterinarian is already booked at that time.");
+            }
             logger.error("Error creating appointment in the database: {}", e.getMessage());
             throw new JpaException(500, "Error creating appointment in the database.");
         } finally {
             em.close();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bulk import committed in chunks of chunkSize rows. Each chunk checks its clinic, client, animal and
+     * veterinarian IDs with one IN query per table, attaches them as references and is inserted through
+     * JDBC batching while holding the booking locks of its veterinarians. Invalid or overlapping rows are
+     * rejected one by one, and a chunk that fails in the database is rolled back and retried row by row.
+     *
+     * A row the iterator cannot parse (IllegalArgumentException) is rejected with the exception's message.
+     * When reading the body fails (UncheckedIOException), the rows received so far are still imported and
+     * the result says where the body ended, so the client can tell what was imported.
+     */
+    public BulkImportResultDTO createAll(Iterator<AppointmentDTO> rows, int chunkSize) {
+        int size = Math.max(1, Math.min(chunkSize, MAX_IMPORT_CHUNK_SIZE));
+        BulkImportResultDTO result = new BulkImportResultDTO();
+        List<AppointmentDTO> chunk = new ArrayList<>(size);
+        List<Integer> chunkIndexes = new ArrayList<>(size);
+        int received = 0;
+        try {
+            while (rows.hasNext()) {
+                int index = received++;
+                try {
+                    chunk.add(rows.next());
+                    chunkIndexes.add(index);
+                } catch (IllegalArgumentException e) {
+                    result.getRejected().add(new BulkImportResultDTO.RejectedRow(index, e.getMessage()));
+                    continue;
+                }
+                if (chunk.size() == size) {
+                    importChunk(chunk, chunkIndexes, result);
+                    chunk.clear();
+                    chunkIndexes.clear();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            logger.warn("Bulk import body ended after {} rows: {}", received, e.getMessage());
+            result.setError("The body could not be read after " + received + " rows, later rows were not received");
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, chunkIndexes, result);
+        }
+        result.setReceived(received);
+        result.getRejected().sort(Comparator.comparingInt(BulkImportResultDTO.RejectedRow::index));
+        logger.info("Imported {} of {} appointments in {} chunks, {} rejected.",
+                result.getCreated(), result.getReceived(), result.getChunks(), result.getRejected().size());
+        return result;
+    }
+
+    // indexes[i] is the position of chunk[i] in the request body
+    private void importChunk(List<AppointmentDTO> chunk, List<Integer> indexes, BulkImportResultDTO result) {
+        List<BatchResult> outcomes = new ArrayList<>(chunk.size());
+        if (persistRows(chunk, outcomes)) {
+            result.setChunks(result.getChunks() + 1);
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            BatchResult outcome = outcomes.get(i);
+            if (outcome.error() != null) {
+                result.getRejected().add(new BulkImportResultDTO.RejectedRow(indexes.get(i), outcome.error().getMessage()));
+            } else {
+                result.setCreated(result.getCreated() + 1);
+            }
+        }
+    }
+
+    // Outcome of one booking of a batch, either the created appointment or the error it was rejected with
+    public record BatchResult(AppointmentDTO created, JpaException error) {}
+
+    /**
+     * Create a batch of bookings in one transaction, used by the BookingPipeline. Rejected bookings do not
+     * affect the others, see persistRows.
+     */
+    public List<BatchResult> createBatch(List<AppointmentDTO> bookings) {
+        List<BatchResult> results = new ArrayList<>(bookings.size());
+        persistRows(bookings, results);
+        long created = results.stream().filter(result -> result.error() == null).count();
+        logger.info("Committed a batch of {} bookings, {} rejected.", created, bookings.size() - created);
+        return results;
+    }
+
+    /**
+     * Validate and persist rows in one transaction, adding one outcome per row to results in row order.
+     * References are checked with one IN query per table and attached without loading them, overlaps are
+     * checked against both the calendars and the earlier rows, all while holding the booking locks of every
+     * veterinarian involved so no single booking can slip in between the check and the commit. Invalid
+     * (400) and overlapping (409) rows are rejected one by one.
+     *
+     * Returns false when the transaction failed, the rows it had not rejected were then created one at a
+     * time so one bad row does not cost the others.
+     */
+    private boolean persistRows(List<AppointmentDTO> rows, List<BatchResult> results) {
+        List<Lock> locks = bookingLocks.forKeys(rows.stream()
+                .filter(Objects::nonNull)
+                .map(AppointmentDTO::getVeterinarianId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        locks.forEach(Lock::lock);
+        BatchResult[] outcomes = new BatchResult[rows.size()];
+        List<Appointment> persisted = new ArrayList<>(rows.size());
+        List<Integer> persistedIndexes = new ArrayList<>(rows.size());
+        EntityManager em = emf.createEntityManager();
+        try {
+            Set<Long> clinics = existingIds(em, "Clinic", rows, AppointmentDTO::getClinicId);
+            Set<Long> clients = existingIds(em, "Client", rows, AppointmentDTO::getClientId);
+            Set<Long> animals = existingIds(em, "Animal", rows, AppointmentDTO::getAnimalId);
+            Set<Long> veterinarians = existingIds(em, "Veterinarian", rows, AppointmentDTO::getVeterinarianId);
+
+            em.getTransaction().begin();
+            for (int i = 0; i < rows.size(); i++) {
+                AppointmentDTO dto = rows.get(i);
+                String problem = validateImportRow(dto, clinics, clients, animals, veterinarians);
+                if (problem != null) {
+                    outcomes[i] = new BatchResult(null, new JpaException(400, problem));
+                    continue;
+                }
+                Appointment appointment = dto.toEntity(em.getReference(Clinic.class, dto.getClinicId()),
+                        em.getReference(Client.class, dto.getClientId()),
+                        em.getReference(Animal.class, dto.getAnimalId()),
+                        em.getReference(Veterinarian.class, dto.getVeterinarianId()));
+                if (appointment.getStatus() == AppointmentStatus.SCHEDULED && overlapsImport(appointment, persisted)) {
+                    outcomes[i] = new BatchResult(null, new JpaException(409, "Veterinarian is already booked at that time."));
+                    continue;
+                }
+                em.persist(appointment);  // The pooled sequence assigns the ID without a round trip, the INSERT is batched
+                persisted.add(appointment);
+                persistedIndexes.add(i);
+            }
+            em.getTransaction().commit();  // One commit, and one log flush, for all rows
+            for (int i = 0; i < persisted.size(); i++) {
+                appointmentChanged(null, persisted.get(i));
+                outcomes[persistedIndexes.get(i)] = new BatchResult(new AppointmentDTO(persisted.get(i)), null);
+            }
+            results.addAll(Arrays.asList(outcomes));
+            return true;
+        } catch (PersistenceException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            // Every row without an outcome yet, including those after the point where the transaction failed
+            List<Integer> retry = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                if (outcomes[i] == null) {
+                    retry.add(i);
+                }
+            }
+            logger.warn("Transaction of {} appointments failed, retrying {} rows one by one: {}", rows.size(), retry.size(), e.getMessage());
+            for (int i : retry) {
+                try {
+                    outcomes[i] = new BatchResult(create(rows.get(i)), null);  // Takes the veterinarian's lock again, which this thread already holds
+                } catch (JpaException error) {
+                    outcomes[i] = new BatchResult(null, error);
+                } catch (RuntimeException error) {  // A row the transaction failed before validating, e.g. one without a status
+                    outcomes[i] = new BatchResult(null, new JpaException(400, "Invalid row"));
+                }
+            }
+            results.addAll(Arrays.asList(outcomes));
+            return false;
+        } finally {
+            em.close();
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+        }
+    }
+
+    // IDs of one referenced table that exist, fetched for a whole chunk at once
+    private static Set<Long> existingIds(EntityManager em, String entity, List<AppointmentDTO> rows, Function<AppointmentDTO, Long> idOf) {
+        Set<Long> ids = rows.stream()
+                .filter(Objects::nonNull)
+                .map(idOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(em.createQuery("SELECT e.id FROM " + entity + " e WHERE e.id IN :ids", Long.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    // Reason the row cannot be imported, or null when it is valid
+    private static String validateImportRow(AppointmentDTO dto, Set<Long> clinics, Set<Long> clients, Set<Long> animals, Set<Long> veterinarians) {
+        if (dto == null) {
+            return "Empty row";
+        }
+        if (dto.getAppointmentDateTime() == null) {
+            return "Appointment date and time are required";
+        }
+        if (dto.getReason() == null || dto.getReason().isBlank()) {
+            return "Reason is required";
+        }
+        if (dto.getStatus() == null || Arrays.stream(AppointmentStatus.values()).noneMatch(status -> status.name().equals(dto.getStatus()))) {
+            return "Unknown status: " + dto.getStatus();
+        }
+        if (dto.getDurationMinutes() != null && dto.getDurationMinutes() <= 0) {
+            return "Duration must be positive";
+        }
+        if (!clinics.contains(dto.getClinicId())) {
+            return "Clinic not found: " + dto.getClinicId();
+        }
+        if (!clients.contains(dto.getClientId())) {
+            return "Client not found: " + dto.getClientId();
+        }
+        if (!animals.contains(dto.getAnimalId())) {
+            return "Animal not found: " + dto.getAnimalId();
+        }
+        if (!veterinarians.contains(dto.getVeterinarianId())) {
+            return "Veterinarian not found: " + dto.getVeterinarianId();
+        }
+        return null;
+    }
+
+    // Overlap with a committed booking or with an earlier row of the same chunk
+    private static boolean overlapsImport(Appointment appointment, List<Appointment> chunk) {
+        Long vetId = appointment.getVeterinarian().getId();
+        LocalDateTime start = appointment.getAppointmentDateTime();
+        LocalDateTime end = start.plusMinutes(appointment.getDurationMinutes());
+        if (calendarIndex.overlaps(vetId, start, appointment.getDurationMinutes(), null)) {
+            return true;
+        }
+        for (Appointment other : chunk) {
+            if (other.getStatus() == AppointmentStatus.SCHEDULED && other.getVeterinarian().getId().equals(vetId)
+                    && other.getAppointmentDateTime().isBefore(end)
+                    && start.isBefore(other.getAppointmentDateTime().plusMinutes(other.getDurationMinutes()))) {
+                return true;
+            }
         }
+        return false;
     }
 
     @Override
     public AppointmentDTO read(Integer id) {
         EntityManager em = emf.createEntityManager();
         try {
-            Appointment appointment = em.find(Appointment.class, id);
+            AppointmentDTO appointment = em.createQuery(SELECT_DTO + "WHERE a.id = :id", AppointmentDTO.class)
+                    .setParameter("id", id.longValue())
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
             if (appointment == null) {
                 logger.warn("Appointment not found for ID: {}", id);
                 throw new JpaException(404, "Appointment not found for ID: " + id);
             }
             logger.info("Appointment with ID {} successfully retrieved.", id);
-            return new AppointmentDTO(appointment);
+            return appointment;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public Long readVersion(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT a.version FROM Appointment a WHERE a.id = :id", Long.class)
+                    .setParameter("id", id.longValue())
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
+        } catch (PersistenceException e) {
+            logger.error("Error reading appointment version from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading appointment from the database.");
         } finally {
             em.close();
         }
@@ -106,7 +603,7 @@ public class AppointmentDAO implements IDAO<AppointmentDTO, Integer> {
     public List<AppointmentDTO> readAll() {
         EntityManager em = emf.createEntityManager();
         try {
-            TypedQuery<AppointmentDTO> query = em.createQuery("SELECT new dat.dto.AppointmentDTO(a) FROM Appointment a", AppointmentDTO.class);
+            TypedQuery<AppointmentDTO> query = em.createQuery(SELECT_DTO + "ORDER BY a.id", AppointmentDTO.class);
             List<AppointmentDTO> appointments = query.getResultList();
             logger.info("Successfully retrieved {} appointments.", appointments.size());
             return appointments;
@@ -115,8 +612,138 @@ public class AppointmentDAO implements IDAO<AppointmentDTO, Integer> {
         }
     }
 
+    @Override
+    public PageDTO<AppointmentDTO> readPage(Long after, int limit) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<AppointmentDTO> appointments = em.createQuery(SELECT_DTO + "WHERE a.id > :after ORDER BY a.id", AppointmentDTO.class)
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultList();
+            logger.info("Successfully retrieved a page of {} appointments.", Math.min(appointments.size(), pageSize));
+            return PageDTO.of(appointments, pageSize, AppointmentDTO::getId);
+        } catch (PersistenceException e) {
+            logger.error("Error fetching appointments from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching appointments from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public long streamAll(Consumer<AppointmentDTO> sink) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();  // PostgreSQL only honours the fetch size inside a transaction
+            long count = 0;
+            // DTOs are not managed, so the persistence context stays empty however large the table is
+            try (Stream<AppointmentDTO> rows = em.createQuery(SELECT_DTO + "ORDER BY a.id", AppointmentDTO.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                    .getResultStream()) {
+                for (Iterator<AppointmentDTO> it = rows.iterator(); it.hasNext(); ) {
+                    sink.accept(it.next());
+                    count++;
+                }
+            }
+            em.getTransaction().commit();
+            logger.info("Successfully streamed {} appointments.", count);
+            return count;
+        } catch (PersistenceException e) {
+            logger.error("Error streaming appointments from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error streaming appointments from the database.");
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    // Calendar range queries, appointments starting in [from, to) in start time order
+    public List<AppointmentDTO> findByClinic(Long clinicId, LocalDateTime from, LocalDateTime to) {
+        return findInRange("clinic", clinicId, from, to);
+    }
+
+    public List<AppointmentDTO> findByVeterinarian(Long veterinarianId, LocalDateTime from, LocalDateTime to) {
+        return findInRange("veterinarian", veterinarianId, from, to);
+    }
+
+    public List<AppointmentDTO> findByClient(Long clientId, LocalDateTime from, LocalDateTime to) {
+        return findInRange("client", clientId, from, to);
+    }
+
+    public List<AppointmentDTO> findByAnimal(Long animalId, LocalDateTime from, LocalDateTime to) {
+        return findInRange("animal", animalId, from, to);
+    }
+
+    // The owner is one of the fixed association names above, never user input
+    private List<AppointmentDTO> findInRange(String owner, Long ownerId, LocalDateTime from, LocalDateTime to) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<AppointmentDTO> appointments = em.createQuery(
+                            SELECT_DTO + "WHERE a." + owner + ".id = :ownerId AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to " +
+                            "ORDER BY a.appointmentDateTime, a.id", AppointmentDTO.class)
+                    .setParameter("ownerId", ownerId)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .getResultList();
+            logger.info("Found {} appointments for {} {} between {} and {}.", appointments.size(), owner, ownerId, from, to);
+            return appointments;
+        } catch (PersistenceException e) {
+            logger.error("Error fetching the {} calendar from the database: {}", owner, e.getMessage());
+            throw new JpaException(500, "Error fetching appointments from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public Map<String, Object> read(Integer id, Projection.Selection fields) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Map<String, Object> row = fields.query(em, "WHERE a.id = :id")
+                    .setParameter("id", id.longValue())
+                    .getResultStream()
+                    .findFirst()
+                    .map(fields::toMap)
+                    .orElseThrow(() -> new JpaException(404, "Appointment not found for ID: " + id));
+            logger.info("Appointment with ID {} successfully retrieved with fields {}.", id, fields);
+            return row;
+        } catch (PersistenceException e) {
+            logger.error("Error reading appointment from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading appointment from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public PageDTO<Map<String, Object>> readPage(Long after, int limit, Projection.Selection fields) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Map<String, Object>> rows = fields.query(em, "WHERE a.id > :after ORDER BY a.id")
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultStream()
+                    .map(fields::toMap)
+                    .collect(Collectors.toList());
+            PageDTO<Map<String, Object>> page = PageDTO.of(rows, pageSize, Projection::idOf);
+            logger.info("Successfully retrieved a page of {} appointments with fields {}.", page.getItems().size(), fields);
+            return page;
+        } catch (PersistenceException e) {
+            logger.error("Error fetching appointments from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching appointments from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public AppointmentDTO update(Integer id, AppointmentDTO appointmentDTO) {
+        Lock lock = bookingLocks.forKey(appointmentDTO.getVeterinarianId());
+        lock.lock();
         EntityManager em = emf.createEntityManager();
         try {
             em.getTransaction().begin();
@@ -125,30 +752,14 @@ public class AppointmentDAO implements IDAO<AppointmentDTO, Integer> {
                 logger.warn("Appointment not found for ID: {}", id);
                 throw new JpaException(404, "Appointment not found for ID: " + id);
             }
+            AppointmentStatsIndex.Entry before = statsEntry(appointment);
 
-            // Fetch related entities (Clinic, Client, Animal, Veterinarian)
-            Animal animal = em.find(Animal.class, appointmentDTO.getAnimalId());
-            Veterinarian veterinarian = em.find(Veterinarian.class, appointmentDTO.getVeterinarianId());
-            Clinic clinic = em.find(Clinic.class, appointmentDTO.getClinicId());
-            Client client = em.find(Client.class, appointmentDTO.getClientId());
-
-            // Validation
-            if (animal == null) {
-                logger.warn("Animal not found for ID: {}", appointmentDTO.getAnimalId());
-                throw new JpaException(400, "Animal not found");
-            }
-            if (veterinarian == null) {
-                logger.warn("Veterinarian not found for ID: {}", appointmentDTO.getVeterinarianId());
-                throw new JpaException(400, "Veterinarian not found");
-            }
-            if (clinic == null) {
-                logger.warn("Clinic not found for ID: {}", appointmentDTO.getClinicId());
-                throw new JpaException(400, "Clinic not found");
-            }
-            if (client == null) {
-                logger.warn("Client not found for ID: {}", appointmentDTO.getClientId());
-                throw new JpaException(400, "Client not found");
-            }
+            // One existence query for all four references, then attach them without loading the rows
+            checkReferencesExist(em, appointmentDTO);
+            Animal animal = em.getReference(Animal.class, appointmentDTO.getAnimalId());
+            Veterinarian veterinarian = em.getReference(Veterinarian.class, appointmentDTO.getVeterinarianId());
+            Clinic clinic = em.getReference(Clinic.class, appointmentDTO.getClinicId());
+            Client client = em.getReference(Client.class, appointmentDTO.getClientId());
 
             // Update appointment fields from DTO
             appointment.convertFromDTO(appointmentDTO);
@@ -156,19 +767,29 @@ public class AppointmentDAO implements IDAO<AppointmentDTO, Integer> {
             appointment.setVeterinarian(veterinarian);
             appointment.setClinic(clinic);
             appointment.setClient(client);
+            checkNoOverlap(appointment);
 
             Appointment mergedAppointment = em.merge(appointment);
             em.getTransaction().commit();
+            appointmentChanged(before, mergedAppointment);
             logger.info("Appointment with ID {} successfully updated.", id);
             return new AppointmentDTO(mergedAppointment);
         } catch (PersistenceException e) {
             if (em.getTransaction().isActive()) {
                 em.getTransaction().rollback();
             }
+            if (isOverlapViolation(e)) {
+                throw new JpaException(409, "Veterinarian is already booked at that time.");
+            }
+            if (isConcurrentUpdate(e)) {
+                logger.warn("Appointment with ID {} was changed while it was being updated.", id);
+                throw new JpaException(409, "Appointment was changed by another request, reload it and try again.");
+            }
             logger.error("Error updating appointment in the database: {}", e.getMessage());
             throw new JpaException(500, "Error updating appointment in the database.");
         } finally {
             em.close();
+            lock.unlock();
         }
     }
 
@@ -184,6 +805,7 @@ public class AppointmentDAO implements IDAO<AppointmentDTO, Integer> {
             }
             em.remove(appointment);
             em.getTransaction().commit();
+            appointmentRemoved(appointment);
             logger.info("Appointment with ID {} successfully deleted.", id);
         } catch (PersistenceException e) {
             if (em.getTransaction().isActive()) {
@@ -196,6 +818,133 @@ public class AppointmentDAO implements IDAO<AppointmentDTO, Integer> {
         }
     }
 
+    /**
+     * Move one appointment to a new status with a single conditional UPDATE, nothing is loaded. The update
+     * only applies while the appointment is still in the expected status, so concurrent transitions cannot
+     * both win. Fails with 404 if the appointment does not exist and 409 if it is in another status.
+     */
+    public StatusTransitionResultDTO transitionStatus(Long id, AppointmentStatus expected, AppointmentStatus target) {
+        StatusTransitionResultDTO result = runTransition("id = :id", Map.of("id", id), expected, target);
+        if (result.getUpdated() == 0) {
+            EntityManager em = emf.createEntityManager();
+            try {
+                List<AppointmentStatus> current = em.createQuery("SELECT a.status FROM Appointment a WHERE a.id = :id", AppointmentStatus.class)
+                        .setParameter("id", id)
+                        .getResultList();
+                if (current.isEmpty()) {
+                    logger.warn("Appointment not found for ID: {}", id);
+                    throw new JpaException(404, "Appointment not found for ID: " + id);
+                }
+                throw new JpaException(409, "Appointment " + id + " is " + current.get(0) + ", not " + result.getFrom() + ".");
+            } finally {
+                em.close();
+            }
+        }
+        return result;
+    }
+
+    // Move every appointment of a clinic or a veterinarian, optionally on one day, that is in the expected status
+    public StatusTransitionResultDTO transitionStatuses(Long clinicId, Long veterinarianId, LocalDate day,
+                                                       AppointmentStatus expected, AppointmentStatus target) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new HashMap<>();
+        if (clinicId != null) {
+            conditions.add("clinic_id = :clinicId");
+            parameters.put("clinicId", clinicId);
+        }
+        if (veterinarianId != null) {
+            conditions.add("veterinarian_id = :veterinarianId");
+            parameters.put("veterinarianId", veterinarianId);
+        }
+        if (conditions.isEmpty()) {
+            throw new IllegalArgumentException("A clinic or a veterinarian is required");
+        }
+        if (day != null) {
+            conditions.add("appointment_datetime >= :from AND appointment_datetime < :to");
+            parameters.put("from", day.atStartOfDay());
+            parameters.put("to", day.plusDays(1).atStartOfDay());
+        }
+        return runTransition(String.join(" AND ", conditions), parameters, expected, target);
+    }
+
+    private StatusTransitionResultDTO runTransition(String condition, Map<String, Object> parameters,
+                                                    AppointmentStatus expected, AppointmentStatus target) {
+        AppointmentStatus from = transitionSource(expected, target);
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            // The version is bumped like a JPA update would, so ETags of the changed appointments go stale
+            NativeQuery<?> query = em.createNativeQuery(
+                            "UPDATE appointments SET status = :target, version = version + 1 " +
+                            "WHERE " + condition + " AND status = :expected " +
+                            "RETURNING id, clinic_id, veterinarian_id, appointment_datetime, duration_minutes")
+                    .unwrap(NativeQuery.class)
+                    .addScalar("id", Long.class)
+                    .addScalar("clinic_id", Long.class)
+                    .addScalar("veterinarian_id", Long.class)
+                    .addScalar("appointment_datetime", LocalDateTime.class)
+                    .addScalar("duration_minutes", Integer.class)
+                    .addSynchronizedEntityClass(Appointment.class);
+            query.setParameter("target", target.name());
+            query.setParameter("expected", from.name());
+            parameters.forEach(query::setParameter);
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = (List<Object[]>) query.getResultList();
+            em.getTransaction().commit();
+
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                statusChanged((Long) row[0], (Long) row[1], (Long) row[2], (LocalDateTime) row[3], (Integer) row[4], from, target);
+                ids.add((Long) row[0]);
+            }
+            Collections.sort(ids);
+            logger.info("Moved {} appointments from {} to {}.", ids.size(), from, target);
+            return new StatusTransitionResultDTO(from.name(), target.name(), ids.size(), ids);
+        } catch (PersistenceException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            if (isOverlapViolation(e)) {
+                throw new JpaException(409, "Veterinarian is already booked at that time.");
+            }
+            logger.error("Error changing appointment status in the database: {}", e.getMessage());
+            throw new JpaException(500, "Error changing appointment status in the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // The status the transition starts from, checked against the AppointmentStatus state machine
+    private static AppointmentStatus transitionSource(AppointmentStatus expected, AppointmentStatus target) {
+        if (expected == null) {
+            List<AppointmentStatus> predecessors = target.predecessors();
+            if (predecessors.size() != 1) {
+                throw new JpaException(400, predecessors.isEmpty()
+                        ? "No appointment can be moved to " + target + "."
+                        : "The expected status is required to move appointments to " + target + ".");
+            }
+            return predecessors.get(0);
+        }
+        if (!expected.canTransitionTo(target)) {
+            throw new JpaException(400, "An appointment cannot move from " + expected + " to " + target + ".");
+        }
+        return expected;
+    }
+
+    // Same as appointmentChanged, for a status change made without loading the appointment
+    private void statusChanged(Long id, Long clinicId, Long veterinarianId, LocalDateTime start, Integer durationMinutes,
+                               AppointmentStatus from, AppointmentStatus to) {
+        boolean scheduled = to == AppointmentStatus.SCHEDULED;
+        if (scheduled) {
+            calendarIndex.putBooking(id, veterinarianId, start, durationMinutes);
+        } else {
+            calendarIndex.removeBooking(id);
+        }
+        reminderScheduler.appointmentChanged(id, start, scheduled);
+        statsIndex.changed(new AppointmentStatsIndex.Entry(clinicId, veterinarianId, start.toLocalDate(), from),
+                new AppointmentStatsIndex.Entry(clinicId, veterinarianId, start.toLocalDate(), to));
+    }
+
     @Override
     public boolean validatePrimaryKey(Integer id) {
         EntityManager em = emf.createEntityManager();
@@ -0,0 +1,116 @@
+package dat.dao.impl;
+
+import dat.config.Settings;
+import dat.dto.AppointmentDTO;
+import dat.exception.JpaException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for bookings. Bookings are queued and a single committer thread writes whatever arrived
+ * within a short window as one transaction through AppointmentDAO.createBatch, so at peak hours many
+ * bookings share one commit and one log flush instead of each paying for its own. Every booking gets a
+ * future that completes once its batch has committed, or fails with the JpaException it was rejected with.
+ *
+ * The pipeline is off unless BOOKING_PIPELINE_WINDOW_MS is set at startup, bookings are then created one
+ * at a time. The window itself is read per batch, so a settings reload adjusts it.
+ */
+public class BookingPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingPipeline.class);
+
+    static final int MAX_BATCH_SIZE = 256;
+    static final int QUEUE_CAPACITY = 10_000;
+
+    private static BookingPipeline instance;
+
+    private final AppointmentDAO appointmentDAO;
+    private final BlockingQueue<PendingBooking> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private record PendingBooking(AppointmentDTO booking, CompletableFuture<AppointmentDTO> result) {}
+
+    BookingPipeline(AppointmentDAO appointmentDAO) {
+        this.appointmentDAO = appointmentDAO;
+        Thread committer = new Thread(this::run, "booking-pipeline");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    // The pipeline, or null when it is not enabled
+    public static synchronized BookingPipeline getInstance(AppointmentDAO appointmentDAO) {
+        if (instance == null) {
+            long windowMillis = Settings.get().getBookingPipelineWindowMillis();
+            if (windowMillis == 0) {
+                return null;
+            }
+            instance = new BookingPipeline(appointmentDAO);
+            logger.info("Booking pipeline started with a {} ms window.", windowMillis);
+        }
+        return instance;
+    }
+
+    public CompletableFuture<AppointmentDTO> submit(AppointmentDTO booking) {
+        CompletableFuture<AppointmentDTO> result = new CompletableFuture<>();
+        if (!queue.offer(new PendingBooking(booking, result))) {
+            result.completeExceptionally(new JpaException(503, "Too many bookings in progress, try again shortly."));
+        }
+        return result;
+    }
+
+    private void run() {
+        List<PendingBooking> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (true) {
+            try {
+                collect(batch);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Booking pipeline failed to commit a batch of {}: {}", batch.size(), e.getMessage());
+                batch.forEach(pending -> pending.result().completeExceptionally(new JpaException(500, "Error creating appointment.")));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Wait for the first booking, then take whatever else arrives within the window
+    private void collect(List<PendingBooking> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Settings.get().getBookingPipelineWindowMillis());
+        while (batch.size() < MAX_BATCH_SIZE) {
+            if (queue.drainTo(batch, MAX_BATCH_SIZE - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingBooking next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void commit(List<PendingBooking> batch) {
+        List<AppointmentDAO.BatchResult> results = appointmentDAO.createBatch(batch.stream().map(PendingBooking::booking).toList());
+        for (int i = 0; i < batch.size(); i++) {
+            AppointmentDAO.BatchResult result = results.get(i);
+            if (result.error() != null) {
+                batch.get(i).result().completeExceptionally(result.error());
+            } else {
+                batch.get(i).result().complete(result.created());
+            }
+        }
+    }
+}
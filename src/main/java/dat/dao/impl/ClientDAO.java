@@ -1,18 +1,27 @@
 package dat.dao.impl;
 
 import dat.dao.IDAO;
+import dat.dao.Projection;
 import dat.dto.ClientDTO;
+import dat.dto.PageDTO;
 import dat.entities.Client;
 import dat.exception.JpaException;
+import dat.util.Pagination;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.PersistenceException;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @NoArgsConstructor(access = AccessLevel.PUBLIC)
 public class ClientDAO implements IDAO<ClientDTO, Integer> {
@@ -20,6 +29,14 @@ public class ClientDAO implements IDAO<ClientDTO, Integer> {
     private static final Logger logger = LoggerFactory.getLogger(ClientDAO.class);  // Logger instance
     private static ClientDAO instance;
     private static EntityManagerFactory emf;
+    // Fields selectable with ?fields=, named as in ClientDTO
+    public static final Projection PROJECTION = new Projection("Client", "c")
+            .column("name", "c.name")
+            .column("gender", "c.gender")
+            .column("email", "c.email")
+            .column("phoneNumber", "c.phoneNumber")
+            .column("address", "c.address")
+            .column("cityId", "c.city.id");
 
     public ClientDAO(EntityManagerFactory emf) {
         ClientDAO.emf = emf;
@@ -70,6 +87,23 @@ public class ClientDAO implements IDAO<ClientDTO, Integer> {
         }
     }
 
+    @Override
+    public Long readVersion(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT c.version FROM Client c WHERE c.id = :id", Long.class)
+                    .setParameter("id", id.longValue())
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
+        } catch (PersistenceException e) {
+            logger.error("Error reading client version from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading client from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public List<ClientDTO> readAll() {
         EntityManager em = emf.createEntityManager();
@@ -83,6 +117,102 @@ public class ClientDAO implements IDAO<ClientDTO, Integer> {
         }
     }
 
+    @Override
+    public PageDTO<ClientDTO> readPage(Long after, int limit) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<ClientDTO> clients = em.createQuery(
+                            "SELECT c FROM Client c WHERE c.id > :after ORDER BY c.id", Client.class)
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultStream()
+                    .map(ClientDTO::new)
+                    .collect(Collectors.toList());
+            logger.info("Successfully retrieved a page of {} clients.", Math.min(clients.size(), pageSize));
+            return PageDTO.of(clients, pageSize, ClientDTO::getId);
+        } catch (PersistenceException e) {
+            logger.error("Error fetching clients from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching clients from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public long streamAll(Consumer<ClientDTO> sink) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();  // PostgreSQL only honours the fetch size inside a transaction
+            long count = 0;
+            try (Stream<Client> rows = em.createQuery(
+                            "SELECT c FROM Client c ORDER BY c.id", Client.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                for (Iterator<Client> it = rows.iterator(); it.hasNext(); ) {
+                    sink.accept(new ClientDTO(it.next()));
+                    if (++count % STREAM_FETCH_SIZE == 0) {
+                        em.clear();  // Keep the persistence context from growing with the table
+                    }
+                }
+            }
+            em.getTransaction().commit();
+            logger.info("Successfully streamed {} clients.", count);
+            return count;
+        } catch (PersistenceException e) {
+            logger.error("Error streaming clients from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error streaming clients from the database.");
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    @Override
+    public Map<String, Object> read(Integer id, Projection.Selection fields) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Map<String, Object> row = fields.query(em, "WHERE c.id = :id")
+                    .setParameter("id", id.longValue())
+                    .getResultStream()
+                    .findFirst()
+                    .map(fields::toMap)
+                    .orElseThrow(() -> new JpaException(404, "Client not found for ID: " + id));
+            logger.info("Client with ID {} successfully retrieved with fields {}.", id, fields);
+            return row;
+        } catch (PersistenceException e) {
+            logger.error("Error reading client from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading client from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public PageDTO<Map<String, Object>> readPage(Long after, int limit, Projection.Selection fields) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Map<String, Object>> rows = fields.query(em, "WHERE c.id > :after ORDER BY c.id")
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultStream()
+                    .map(fields::toMap)
+                    .collect(Collectors.toList());
+            PageDTO<Map<String, Object>> page = PageDTO.of(rows, pageSize, Projection::idOf);
+            logger.info("Successfully retrieved a page of {} clients with fields {}.", page.getItems().size(), fields);
+            return page;
+        } catch (PersistenceException e) {
+            logger.error("Error fetching clients from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching clients from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public ClientDTO update(Integer id, ClientDTO clientDTO) {
         EntityManager em = emf.createEntityManager();
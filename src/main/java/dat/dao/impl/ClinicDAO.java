@@ -1,23 +1,71 @@
 package dat.dao.impl;
 
 import dat.dao.IDAO;
+import dat.dao.Projection;
 import dat.dto.ClinicDTO;
+import dat.dto.NearbyClinicDTO;
+import dat.dto.OpeningHoursDTO;
+import dat.dto.PageDTO;
 import dat.entities.Clinic;
 import dat.entities.City;
+import dat.entities.OpeningHours;
+import dat.enums.Weekday;
 import dat.exception.JpaException;
+import dat.index.ClinicSpatialIndex;
+import dat.index.EmergencyCandidateIndex;
+import dat.index.OpeningScheduleIndex;
+import dat.index.VeterinarianCalendarIndex;
+import dat.util.Pagination;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceException;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ClinicDAO implements IDAO<ClinicDTO, Long> {
 
     private static final Logger logger = LoggerFactory.getLogger(ClinicDAO.class);  // Logger instance
+    private static final String FETCH_GRAPH_HINT = "jakarta.persistence.fetchgraph";
     private static ClinicDAO instance;
     private static EntityManagerFactory emf;
+    private static final ClinicSpatialIndex spatialIndex = ClinicSpatialIndex.getInstance();
+    private static final OpeningScheduleIndex scheduleIndex = OpeningScheduleIndex.getInstance();
+    private static final EmergencyCandidateIndex emergencyIndex = EmergencyCandidateIndex.getInstance();
+    private static final VeterinarianCalendarIndex calendarIndex = VeterinarianCalendarIndex.getInstance();
+
+    // Substring or trigram similarity match, both served by idx_clinics_name_trgm
+    static final String NAME_SEARCH_SQL = "SELECT c.id FROM clinics c " +
+            "WHERE c.name ILIKE :pattern OR c.name % :name " +
+            "ORDER BY similarity(c.name, :name) DESC, c.id " +
+            "LIMIT :limit";
+
+    // Fields selectable with ?fields=, named as in ClinicDTO
+    public static final Projection PROJECTION = new Projection("Clinic", "c")
+            .column("name", "c.name")
+            .column("address", "c.address")
+            .column("contactPhone", "c.contactPhone")
+            .column("emergencyServices", "c.emergencyServices")
+            .column("cityId", "c.city.id")
+            .column("latitude", "c.latitude")
+            .column("longitude", "c.longitude")
+            .association("openingHours");
 
     private ClinicDAO() {}
 
@@ -25,10 +73,101 @@ public class ClinicDAO implements IDAO<ClinicDTO, Long> {
         if (instance == null) {
             emf = _emf;
             instance = new ClinicDAO();
+            instance.loadSpatialIndex();
+            instance.loadScheduleIndex();
+            instance.loadEmergencyFlags();
+            instance.loadClinicCities();
         }
         return instance;
     }
 
+    // Load the coordinates of every clinic into the in-memory spatial index
+    private void loadSpatialIndex() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Object[]> rows = em.createQuery(
+                            "SELECT c.id, c.latitude, c.longitude FROM Clinic c WHERE c.latitude IS NOT NULL AND c.longitude IS NOT NULL", Object[].class)
+                    .getResultList();
+            spatialIndex.clear();
+            rows.forEach(row -> spatialIndex.put((Long) row[0], (Double) row[1], (Double) row[2]));
+            logger.info("Spatial index loaded with {} clinics.", rows.size());
+        } catch (PersistenceException e) {
+            logger.error("Error loading clinic coordinates from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error loading clinic coordinates from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // Compile the opening hours of every clinic into the in-memory schedule index
+    private void loadScheduleIndex() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Object[]> rows = em.createQuery(
+                            "SELECT o.clinic.id, o.weekday, o.openTime, o.closeTime FROM OpeningHours o", Object[].class)
+                    .getResultList();
+            Map<Long, List<OpeningScheduleIndex.Interval>> intervalsByClinic = new HashMap<>();
+            for (Object[] row : rows) {
+                intervalsByClinic.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                        .add(new OpeningScheduleIndex.Interval((Weekday) row[1], (LocalTime) row[2], (LocalTime) row[3]));
+            }
+            scheduleIndex.clear();
+            intervalsByClinic.forEach(scheduleIndex::put);
+            logger.info("Schedule index loaded for {} clinics.", intervalsByClinic.size());
+        } catch (PersistenceException e) {
+            logger.error("Error loading opening hours from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error loading opening hours from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // Load which clinics offer emergency services, the veterinarians are loaded by VeterinarianDAO
+    private void loadEmergencyFlags() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Map<Long, Boolean> emergencyServices = new HashMap<>();
+            em.createQuery("SELECT c.id, c.emergencyServices FROM Clinic c", Object[].class)
+                    .getResultStream()
+                    .forEach(row -> emergencyServices.put((Long) row[0], (Boolean) row[1]));
+            emergencyIndex.loadClinics(emergencyServices);
+            logger.info("Emergency services loaded for {} clinics.", emergencyServices.size());
+        } catch (PersistenceException e) {
+            logger.error("Error loading emergency services from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error loading emergency services from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // Load the city of every clinic, used by the free-slot search to filter veterinarians by city
+    private void loadClinicCities() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Object[]> rows = em.createQuery("SELECT c.id, c.city.id FROM Clinic c", Object[].class)
+                    .getResultList();
+            rows.forEach(row -> calendarIndex.putClinic((Long) row[0], (Long) row[1]));
+            logger.info("Clinic cities loaded for {} clinics.", rows.size());
+        } catch (PersistenceException e) {
+            logger.error("Error loading clinic cities from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error loading clinic cities from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // Recompile the schedule of a single clinic from its current opening hours
+    private void rebuildSchedule(EntityManager em, Long clinicId) {
+        List<OpeningScheduleIndex.Interval> intervals = em.createQuery(
+                        "SELECT o.weekday, o.openTime, o.closeTime FROM OpeningHours o WHERE o.clinic.id = :clinicId", Object[].class)
+                .setParameter("clinicId", clinicId)
+                .getResultStream()
+                .map(row -> new OpeningScheduleIndex.Interval((Weekday) row[0], (LocalTime) row[1], (LocalTime) row[2]))
+                .collect(Collectors.toList());
+        scheduleIndex.put(clinicId, intervals);
+        emergencyIndex.scheduleChanged(clinicId);
+    }
+
     @Override
     public ClinicDTO create(ClinicDTO clinicDTO) {
         EntityManager em = emf.createEntityManager();
@@ -49,6 +188,9 @@ public class ClinicDAO implements IDAO<ClinicDTO, Long> {
             // Persist the clinic entity
             em.persist(clinic);
             em.getTransaction().commit();
+            spatialIndex.put(clinic.getId(), clinic.getLatitude(), clinic.getLongitude());
+            emergencyIndex.putClinic(clinic.getId(), clinic.getEmergencyServices());
+            calendarIndex.putClinic(clinic.getId(), clinic.getCity().getId());
 
             logger.info("Clinic created successfully with ID {}", clinic.getId());
             return new ClinicDTO(clinic);
@@ -67,7 +209,7 @@ public class ClinicDAO implements IDAO<ClinicDTO, Long> {
     public ClinicDTO read(Long id) {
         EntityManager em = emf.createEntityManager();
         try {
-            Clinic clinic = em.find(Clinic.class, id);
+            Clinic clinic = em.find(Clinic.class, id, Map.of(FETCH_GRAPH_HINT, em.getEntityGraph(Clinic.WITH_CITY_AND_OPENING_HOURS)));
             if (clinic == null) {
                 logger.warn("Clinic not found for ID: {}", id);
                 throw new JpaException(404, "Clinic not found for ID: " + id);
@@ -82,12 +224,34 @@ public class ClinicDAO implements IDAO<ClinicDTO, Long> {
         }
     }
 
+    @Override
+    public Long readVersion(Long id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT c.version FROM Clinic c WHERE c.id = :id", Long.class)
+                    .setParameter("id", id)
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
+        } catch (PersistenceException e) {
+            logger.error("Error reading clinic version from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading clinic from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public List<ClinicDTO> readAll() {
         EntityManager em = emf.createEntityManager();
         try {
-            List<ClinicDTO> clinics = em.createQuery("SELECT new dat.dto.ClinicDTO(c) FROM Clinic c", ClinicDTO.class)
-                    .getResultList();
+            // One statement for all clinics, their cities and opening hours instead of one per clinic
+            List<ClinicDTO> clinics = em.createQuery("SELECT c FROM Clinic c ORDER BY c.id", Clinic.class)
+                    .setHint(FETCH_GRAPH_HINT, em.getEntityGraph(Clinic.WITH_CITY_AND_OPENING_HOURS))
+                    .getResultList()
+                    .stream()
+                    .map(ClinicDTO::new)
+                    .collect(Collectors.toList());
             logger.info("Successfully retrieved {} clinics.", clinics.size());
             return clinics;
         } catch (PersistenceException e) {
@@ -98,6 +262,110 @@ public class ClinicDAO implements IDAO<ClinicDTO, Long> {
         }
     }
 
+    @Override
+    public PageDTO<ClinicDTO> readPage(Long after, int limit) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            // Page over IDs first, then fetch the page with its cities and opening hours
+            List<Long> ids = em.createQuery("SELECT c.id FROM Clinic c WHERE c.id > :after ORDER BY c.id", Long.class)
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultList();
+            List<ClinicDTO> clinics = fetchWithGraph(em, ids).stream()
+                    .map(ClinicDTO::new)
+                    .collect(Collectors.toList());
+            logger.info("Successfully retrieved a page of {} clinics.", Math.min(clinics.size(), pageSize));
+            return PageDTO.of(clinics, pageSize, ClinicDTO::getId);
+        } catch (PersistenceException e) {
+            logger.error("Error fetching clinics from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching clinics from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public long streamAll(Consumer<ClinicDTO> sink) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();  // PostgreSQL only honours the fetch size inside a transaction
+            long count = 0;
+            // Stream the IDs and load clinics in batches, a collection fetch cannot be streamed row by row
+            List<Long> batch = new ArrayList<>(STREAM_FETCH_SIZE);
+            try (Stream<Long> ids = em.createQuery("SELECT c.id FROM Clinic c ORDER BY c.id", Long.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                    .getResultStream()) {
+                for (Iterator<Long> it = ids.iterator(); it.hasNext(); ) {
+                    batch.add(it.next());
+                    if (batch.size() == STREAM_FETCH_SIZE || !it.hasNext()) {
+                        for (Clinic clinic : fetchWithGraph(em, batch)) {
+                            sink.accept(new ClinicDTO(clinic));
+                            count++;
+                        }
+                        batch.clear();
+                        em.clear();  // Keep the persistence context from growing with the table
+                    }
+                }
+            }
+            em.getTransaction().commit();
+            logger.info("Successfully streamed {} clinics.", count);
+            return count;
+        } catch (PersistenceException e) {
+            logger.error("Error streaming clinics from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error streaming clinics from the database.");
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    @Override
+    public Map<String, Object> read(Long id, Projection.Selection fields) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Map<String, Object> row = fields.query(em, "WHERE c.id = :id")
+                    .setParameter("id", id)
+                    .getResultStream()
+                    .findFirst()
+                    .map(fields::toMap)
+                    .orElseThrow(() -> new JpaException(404, "Clinic not found for ID: " + id));
+            addOpeningHours(em, List.of(row), fields);
+            logger.info("Clinic with ID {} successfully retrieved with fields {}.", id, fields);
+            return row;
+        } catch (PersistenceException e) {
+            logger.error("Error reading clinic from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading clinic from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public PageDTO<Map<String, Object>> readPage(Long after, int limit, Projection.Selection fields) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Map<String, Object>> rows = fields.query(em, "WHERE c.id > :after ORDER BY c.id")
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultStream()
+                    .map(fields::toMap)
+                    .collect(Collectors.toList());
+            PageDTO<Map<String, Object>> page = PageDTO.of(rows, pageSize, Projection::idOf);
+            addOpeningHours(em, page.getItems(), fields);
+            logger.info("Successfully retrieved a page of {} clinics with fields {}.", page.getItems().size(), fields);
+            return page;
+        } catch (PersistenceException e) {
+            logger.error("Error fetching clinics from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching clinics from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public ClinicDTO update(Long id, ClinicDTO clinicDTO) {
         EntityManager em = emf.createEntityManager();
@@ -124,6 +392,9 @@ public class ClinicDAO implements IDAO<ClinicDTO, Long> {
             // Merge and commit the changes
             Clinic updatedClinic = em.merge(clinic);
             em.getTransaction().commit();
+            spatialIndex.put(updatedClinic.getId(), updatedClinic.getLatitude(), updatedClinic.getLongitude());
+            emergencyIndex.putClinic(updatedClinic.getId(), updatedClinic.getEmergencyServices());
+            calendarIndex.putClinic(updatedClinic.getId(), updatedClinic.getCity().getId());
 
             logger.info("Clinic with ID {} successfully updated.", id);
             return new ClinicDTO(updatedClinic);
@@ -150,6 +421,10 @@ public class ClinicDAO implements IDAO<ClinicDTO, Long> {
             }
             em.remove(clinic);
             em.getTransaction().commit();
+            spatialIndex.remove(id);
+            scheduleIndex.remove(id);
+            emergencyIndex.removeClinic(id);
+            calendarIndex.removeClinic(id);
             logger.info("Clinic with ID {} successfully deleted.", id);
         } catch (PersistenceException e) {
             if (em.getTransaction().isActive()) {
@@ -178,4 +453,219 @@ public class ClinicDAO implements IDAO<ClinicDTO, Long> {
             em.close();
         }
     }
-}
\ No newline at end of file
+
+    // Fetch one page of a city's clinics ordered by ID, starting after the given cursor (keyset pagination)
+    public PageDTO<ClinicDTO> findByCity(Long cityId, Long afterId, int limit) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            // Page over IDs first, a collection fetch cannot be combined with a row limit in SQL
+            List<Long> ids = em.createQuery(
+                            "SELECT c.id FROM Clinic c WHERE c.city.id = :cityId AND c.id > :afterId ORDER BY c.id", Long.class)
+                    .setParameter("cityId", cityId)
+                    .setParameter("afterId", Pagination.afterOrStart(afterId))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultList();
+            List<ClinicDTO> clinics = fetchWithGraph(em, ids).stream()
+                    .map(ClinicDTO::new)
+                    .collect(Collectors.toList());
+            logger.info("Successfully retrieved {} clinics for city ID {}.", Math.min(clinics.size(), pageSize), cityId);
+            return PageDTO.of(clinics, pageSize, ClinicDTO::getId);
+        } catch (PersistenceException e) {
+            logger.error("Error fetching clinics by city from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching clinics from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // Substring and typo-tolerant name search ranked by trigram similarity, served by idx_clinics_name_trgm
+    public List<ClinicDTO> searchByName(String name, int limit) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            @SuppressWarnings("unchecked")
+            List<Long> ids = ((List<Number>) em.createNativeQuery(NAME_SEARCH_SQL)
+                    .setParameter("pattern", likePattern(name))
+                    .setParameter("name", name)
+                    .setParameter("limit", limit)
+                    .getResultList())
+                    .stream()
+                    .map(Number::longValue)
+                    .toList();
+            List<ClinicDTO> clinics = fetchWithGraph(em, ids).stream()
+                    .map(ClinicDTO::new)
+                    .collect(Collectors.toList());
+            logger.info("Found {} clinics matching name '{}'.", clinics.size(), name);
+            return clinics;
+        } catch (PersistenceException e) {
+            logger.error("Error searching clinics by name in the database: {}", e.getMessage());
+            throw new JpaException(500, "Error searching clinics in the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // Substring pattern for the ILIKE half of NAME_SEARCH_SQL, wildcards in the input are matched literally
+    static String likePattern(String name) {
+        return "%" + name.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    // Add an opening hours entry to a clinic and recompile that clinic's schedule
+    public OpeningHoursDTO addOpeningHours(Long clinicId, OpeningHoursDTO openingHoursDTO) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            Clinic clinic = em.find(Clinic.class, clinicId);
+            if (clinic == null) {
+                logger.warn("Clinic not found for ID: {}", clinicId);
+                throw new JpaException(404, "Clinic not found for ID: " + clinicId);
+            }
+
+            OpeningHours openingHours = openingHoursDTO.toEntity();
+            openingHours.setId(null);
+            clinic.addOpeningHour(openingHours);
+            em.persist(openingHours);
+            // Opening hours are part of the clinic representation, so they must change its ETag too
+            em.lock(clinic, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            em.getTransaction().commit();
+
+            rebuildSchedule(em, clinicId);
+            logger.info("Opening hours added to clinic with ID {}.", clinicId);
+            return new OpeningHoursDTO(openingHours);
+        } catch (PersistenceException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            logger.error("Error adding opening hours in the database: {}", e.getMessage());
+            throw new JpaException(500, "Error adding opening hours in the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // Clinics open at the given moment, answered from the schedule index
+    // A page of the clinics open at the given moment in ID order. The schedule index picks the IDs, only the page is loaded.
+    public PageDTO<ClinicDTO> findOpenAt(ZonedDateTime at, Long after, int limit) {
+        int pageSize = Pagination.clampLimit(limit);
+        long cursor = Pagination.afterOrStart(after);
+        List<Long> ids = scheduleIndex.openClinics(at).stream()
+                .filter(id -> id > cursor)
+                .sorted()
+                .limit(pageSize + 1L)  // One extra ID tells us whether there is a next page
+                .toList();
+        Map<Long, ClinicDTO> found = findByIds(ids);
+        List<ClinicDTO> clinics = ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)  // Deleted since the index was read
+                .toList();
+        logger.info("Found a page of {} clinics open at {}.", Math.min(clinics.size(), pageSize), at);
+        return PageDTO.of(clinics, pageSize, ClinicDTO::getId);
+    }
+
+    public boolean isOpenAt(Long clinicId, ZonedDateTime at) {
+        return scheduleIndex.isOpen(clinicId, at);
+    }
+
+    public Optional<ZonedDateTime> findNextOpening(Long clinicId, ZonedDateTime from) {
+        return scheduleIndex.nextOpening(clinicId, from);
+    }
+
+    // Emergency clinics that are open now and have an available veterinarian, nearest first when a location is given
+    public List<NearbyClinicDTO> findEmergencyClinics(Double latitude, Double longitude, int limit) {
+        long start = System.nanoTime();
+        long[] candidates = emergencyIndex.openCandidates(ZonedDateTime.now());
+        long elapsed = System.nanoTime() - start;
+        if (elapsed > EmergencyCandidateIndex.LOOKUP_BUDGET_NANOS) {
+            logger.warn("Emergency candidate lookup took {} us, over the {} us budget.", elapsed / 1000, EmergencyCandidateIndex.LOOKUP_BUDGET_NANOS / 1000);
+        }
+
+        List<ClinicSpatialIndex.Neighbour> ranked = new ArrayList<>(candidates.length);
+        for (long clinicId : candidates) {
+            Double distance = latitude != null && longitude != null ? spatialIndex.distanceKm(clinicId, latitude, longitude) : null;
+            ranked.add(new ClinicSpatialIndex.Neighbour(clinicId, distance != null ? distance : Double.POSITIVE_INFINITY));
+        }
+        if (latitude != null && longitude != null) {
+            ranked.sort((a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));  // Stable, so ties keep ID order
+        }
+        if (ranked.size() > limit) {
+            ranked = ranked.subList(0, limit);
+        }
+
+        Map<Long, ClinicDTO> clinics = findByIds(ranked.stream().map(ClinicSpatialIndex.Neighbour::clinicId).toList());
+        List<NearbyClinicDTO> result = new ArrayList<>(ranked.size());
+        for (ClinicSpatialIndex.Neighbour candidate : ranked) {
+            ClinicDTO clinic = clinics.get(candidate.clinicId());
+            if (clinic != null) {
+                Double distance = Double.isInfinite(candidate.distanceKm()) ? null : candidate.distanceKm();
+                result.add(new NearbyClinicDTO(clinic, distance));
+            }
+        }
+        logger.info("Found {} open emergency clinics.", result.size());
+        return result;
+    }
+
+    // Find the k clinics closest to the given point using the in-memory spatial index
+    public List<NearbyClinicDTO> findNearest(double latitude, double longitude, int k) {
+        List<ClinicSpatialIndex.Neighbour> neighbours = spatialIndex.nearest(latitude, longitude, k);
+        Map<Long, ClinicDTO> clinics = findByIds(neighbours.stream().map(ClinicSpatialIndex.Neighbour::clinicId).toList());
+
+        List<NearbyClinicDTO> result = new ArrayList<>(neighbours.size());
+        for (ClinicSpatialIndex.Neighbour neighbour : neighbours) {
+            ClinicDTO clinic = clinics.get(neighbour.clinicId());
+            if (clinic != null) {  // Skip clinics deleted between the index lookup and the read
+                result.add(new NearbyClinicDTO(clinic, neighbour.distanceKm()));
+            }
+        }
+        logger.info("Found {} clinics near ({}, {}).", result.size(), latitude, longitude);
+        return result;
+    }
+
+    // Load a set of clinics by primary key in a single query, keyed by ID
+    public Map<Long, ClinicDTO> findByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        EntityManager em = emf.createEntityManager();
+        try {
+            return fetchWithGraph(em, ids).stream()
+                    .map(ClinicDTO::new)
+                    .collect(Collectors.toMap(ClinicDTO::getId, Function.identity()));
+        } catch (PersistenceException e) {
+            logger.error("Error fetching clinics by ID from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching clinics from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    // Load opening hours for projected clinic rows with one query, only when the selection asks for them
+    private void addOpeningHours(EntityManager em, List<Map<String, Object>> rows, Projection.Selection fields) {
+        if (!fields.includes("openingHours") || rows.isEmpty()) {
+            return;
+        }
+        List<Long> ids = rows.stream().map(Projection::idOf).toList();
+        Map<Long, List<OpeningHoursDTO>> openingHours = new HashMap<>();
+        em.createQuery("SELECT o FROM OpeningHours o WHERE o.clinic.id IN :ids ORDER BY o.id", OpeningHours.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .forEach(o -> openingHours.computeIfAbsent(o.getClinic().getId(), id -> new ArrayList<>()).add(new OpeningHoursDTO(o)));
+        rows.forEach(row -> row.put("openingHours", openingHours.getOrDefault(Projection.idOf(row), List.of())));
+    }
+
+    // Load clinics with their city and opening hours in a single statement, in the order of the given IDs
+    private List<Clinic> fetchWithGraph(EntityManager em, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Clinic> clinics = em.createQuery("SELECT c FROM Clinic c WHERE c.id IN :ids", Clinic.class)
+                .setParameter("ids", ids)
+                .setHint(FETCH_GRAPH_HINT, em.getEntityGraph(Clinic.WITH_CITY_AND_OPENING_HOURS))
+                .getResultList()
+                .stream()
+                .collect(Collectors.toMap(Clinic::getId, Function.identity(), (first, duplicate) -> first));
+        return ids.stream()
+                .map(clinics::get)
+                .filter(Objects::nonNull)  // Deleted since the IDs were read
+                .collect(Collectors.toList());
+    }
+}
@@ -1,20 +1,34 @@
 package dat.dao.impl;
 
 import dat.dao.IDAO;
+import dat.dao.Projection;
 import dat.dto.VeterinarianDTO;
+import dat.dto.PageDTO;
 import dat.entities.Veterinarian;
 import dat.entities.Clinic;
 import dat.exception.JpaException;
+import dat.util.Pagination;
+import dat.enums.Availability;
+import dat.enums.Specialization;
+import dat.index.EmergencyCandidateIndex;
+import dat.index.VeterinarianCalendarIndex;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.TypedQuery;
 import jakarta.persistence.PersistenceException;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @NoArgsConstructor(access = AccessLevel.PUBLIC)
 public class VeterinarianDAO implements IDAO<VeterinarianDTO, Integer> {
@@ -22,6 +36,14 @@ public class VeterinarianDAO implements IDAO<VeterinarianDTO, Integer> {
     private static final Logger logger = LoggerFactory.getLogger(VeterinarianDAO.class);  // Logger instance
     private static VeterinarianDAO instance;
     private static EntityManagerFactory emf;
+    // Fields selectable with ?fields=, named as in VeterinarianDTO
+    public static final Projection PROJECTION = new Projection("Veterinarian", "v")
+            .column("name", "v.name")
+            .column("specialties", "v.specialties")
+            .column("clinicId", "v.clinic.id")
+            .column("availableForEmergency", "v.availableForEmergency");
+    private static final EmergencyCandidateIndex emergencyIndex = EmergencyCandidateIndex.getInstance();
+    private static final VeterinarianCalendarIndex calendarIndex = VeterinarianCalendarIndex.getInstance();
 
     public VeterinarianDAO(EntityManagerFactory emf) {
         VeterinarianDAO.emf = emf;
@@ -31,10 +53,33 @@ public class VeterinarianDAO implements IDAO<VeterinarianDTO, Integer> {
         if (instance == null) {
             emf = _emf;
             instance = new VeterinarianDAO();
+            instance.loadVeterinarianIndexes();
         }
         return instance;
     }
 
+    // Load every veterinarian into the emergency candidate index and the veterinarian calendars
+    private void loadVeterinarianIndexes() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Object[]> rows = em.createQuery(
+                            "SELECT v.id, v.clinic.id, v.availableForEmergency, v.specialties FROM Veterinarian v", Object[].class)
+                    .getResultList();
+            List<EmergencyCandidateIndex.VeterinarianState> veterinarians = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                veterinarians.add(new EmergencyCandidateIndex.VeterinarianState((Long) row[0], (Long) row[1], (Availability) row[2]));
+                calendarIndex.putVeterinarian((Long) row[0], (Long) row[1], (Specialization) row[3]);
+            }
+            emergencyIndex.loadVeterinarians(veterinarians);
+            logger.info("Emergency availability and calendars loaded for {} veterinarians.", veterinarians.size());
+        } catch (PersistenceException e) {
+            logger.error("Error loading veterinarian availability from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error loading veterinarian availability from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public VeterinarianDTO create(VeterinarianDTO veterinarianDTO) {
         EntityManager em = emf.createEntityManager();
@@ -51,6 +96,8 @@ public class VeterinarianDAO implements IDAO<VeterinarianDTO, Integer> {
 
             em.persist(veterinarian);
             em.getTransaction().commit();
+            emergencyIndex.putVeterinarian(veterinarian.getId(), clinic.getId(), veterinarian.getAvailableForEmergency());
+            calendarIndex.putVeterinarian(veterinarian.getId(), clinic.getId(), veterinarian.getSpecialties());
             logger.info("Veterinarian created successfully with ID {}", veterinarian.getId());
             return new VeterinarianDTO(veterinarian);
         } catch (PersistenceException e) {
@@ -80,6 +127,23 @@ public class VeterinarianDAO implements IDAO<VeterinarianDTO, Integer> {
         }
     }
 
+    @Override
+    public Long readVersion(Integer id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("SELECT v.version FROM Veterinarian v WHERE v.id = :id", Long.class)
+                    .setParameter("id", id.longValue())
+                    .getResultStream()
+                    .findFirst()
+                    .orElse(null);
+        } catch (PersistenceException e) {
+            logger.error("Error reading veterinarian version from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading veterinarian from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public List<VeterinarianDTO> readAll() {
         EntityManager em = emf.createEntityManager();
@@ -93,6 +157,102 @@ public class VeterinarianDAO implements IDAO<VeterinarianDTO, Integer> {
         }
     }
 
+    @Override
+    public PageDTO<VeterinarianDTO> readPage(Long after, int limit) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<VeterinarianDTO> veterinarians = em.createQuery(
+                            "SELECT v FROM Veterinarian v JOIN FETCH v.clinic WHERE v.id > :after ORDER BY v.id", Veterinarian.class)
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultStream()
+                    .map(VeterinarianDTO::new)
+                    .collect(Collectors.toList());
+            logger.info("Successfully retrieved a page of {} veterinarians.", Math.min(veterinarians.size(), pageSize));
+            return PageDTO.of(veterinarians, pageSize, VeterinarianDTO::getId);
+        } catch (PersistenceException e) {
+            logger.error("Error fetching veterinarians from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching veterinarians from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public long streamAll(Consumer<VeterinarianDTO> sink) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();  // PostgreSQL only honours the fetch size inside a transaction
+            long count = 0;
+            try (Stream<Veterinarian> rows = em.createQuery(
+                            "SELECT v FROM Veterinarian v JOIN FETCH v.clinic ORDER BY v.id", Veterinarian.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()) {
+                for (Iterator<Veterinarian> it = rows.iterator(); it.hasNext(); ) {
+                    sink.accept(new VeterinarianDTO(it.next()));
+                    if (++count % STREAM_FETCH_SIZE == 0) {
+                        em.clear();  // Keep the persistence context from growing with the table
+                    }
+                }
+            }
+            em.getTransaction().commit();
+            logger.info("Successfully streamed {} veterinarians.", count);
+            return count;
+        } catch (PersistenceException e) {
+            logger.error("Error streaming veterinarians from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error streaming veterinarians from the database.");
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    @Override
+    public Map<String, Object> read(Integer id, Projection.Selection fields) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            Map<String, Object> row = fields.query(em, "WHERE v.id = :id")
+                    .setParameter("id", id.longValue())
+                    .getResultStream()
+                    .findFirst()
+                    .map(fields::toMap)
+                    .orElseThrow(() -> new JpaException(404, "Veterinarian not found for ID: " + id));
+            logger.info("Veterinarian with ID {} successfully retrieved with fields {}.", id, fields);
+            return row;
+        } catch (PersistenceException e) {
+            logger.error("Error reading veterinarian from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error reading veterinarian from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public PageDTO<Map<String, Object>> readPage(Long after, int limit, Projection.Selection fields) {
+        int pageSize = Pagination.clampLimit(limit);
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Map<String, Object>> rows = fields.query(em, "WHERE v.id > :after ORDER BY v.id")
+                    .setParameter("after", Pagination.afterOrStart(after))
+                    .setMaxResults(pageSize + 1)  // One extra row tells us whether there is a next page
+                    .getResultStream()
+                    .map(fields::toMap)
+                    .collect(Collectors.toList());
+            PageDTO<Map<String, Object>> page = PageDTO.of(rows, pageSize, Projection::idOf);
+            logger.info("Successfully retrieved a page of {} veterinarians with fields {}.", page.getItems().size(), fields);
+            return page;
+        } catch (PersistenceException e) {
+            logger.error("Error fetching veterinarians from the database: {}", e.getMessage());
+            throw new JpaException(500, "Error fetching veterinarians from the database.");
+        } finally {
+            em.close();
+        }
+    }
+
     @Override
     public VeterinarianDTO update(Integer id, VeterinarianDTO veterinarianDTO) {
         EntityManager em = emf.createEntityManager();
@@ -116,6 +276,8 @@ public class VeterinarianDAO implements IDAO<VeterinarianDTO, Integer> {
 
             Veterinarian mergedVeterinarian = em.merge(veterinarian);
             em.getTransaction().commit();
+            emergencyIndex.putVeterinarian(mergedVeterinarian.getId(), mergedVeterinarian.getClinic().getId(), mergedVeterinarian.getAvailableForEmergency());
+            calendarIndex.putVeterinarian(mergedVeterinarian.getId(), mergedVeterinarian.getClinic().getId(), mergedVeterinarian.getSpecialties());
             logger.info("Veterinarian with ID {} successfully updated.", id);
             return new VeterinarianDTO(mergedVeterinarian);
         } catch (PersistenceException e) {
@@ -141,6 +303,8 @@ public class VeterinarianDAO implements IDAO<VeterinarianDTO, Integer> {
             }
             em.remove(veterinarian);
             em.getTransaction().commit();
+            emergencyIndex.removeVeterinarian(veterinarian.getId());
+            calendarIndex.removeVeterinarian(veterinarian.getId());
             logger.info("Veterinarian with ID {} successfully deleted.", id);
         } catch (PersistenceException e) {
             if (em.getTransaction().isActive()) {
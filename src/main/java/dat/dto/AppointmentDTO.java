@@ -21,6 +21,7 @@ public class AppointmentDTO {
 
     private Long id;
     private LocalDateTime appointmentDateTime;
+    private Integer durationMinutes;  // Defaults to Appointment.DEFAULT_DURATION_MINUTES when omitted
     private String reason;
     private String status;
     private Long clinicId;
@@ -31,6 +32,7 @@ public class AppointmentDTO {
     public AppointmentDTO(Appointment appointment) {
         this.id = appointment.getId();
         this.appointmentDateTime = appointment.getAppointmentDateTime();
+        this.durationMinutes = appointment.getDurationMinutes();
         this.reason = appointment.getReason();
         this.status = appointment.getStatus().name();
         this.clinicId = appointment.getClinic().getId();
@@ -39,10 +41,17 @@ public class AppointmentDTO {
         this.veterinarianId = appointment.getVeterinarian().getId();
     }
 
+    // Used by JPQL constructor expressions that read the foreign keys without loading the associations
+    public AppointmentDTO(Long id, LocalDateTime appointmentDateTime, Integer durationMinutes, String reason, AppointmentStatus status,
+                          Long clinicId, Long clientId, Long animalId, Long veterinarianId) {
+        this(id, appointmentDateTime, durationMinutes, reason, status.name(), clinicId, clientId, animalId, veterinarianId);
+    }
+
     public Appointment toEntity(Clinic clinic, Client client, Animal animal, Veterinarian veterinarian) {
         Appointment appointment = new Appointment();
         appointment.setId(this.id);
         appointment.setAppointmentDateTime(this.appointmentDateTime);
+        appointment.setDurationMinutes(this.durationMinutes != null ? this.durationMinutes : Appointment.DEFAULT_DURATION_MINUTES);
         appointment.setReason(this.reason);
         appointment.setStatus(AppointmentStatus.valueOf(this.status));
         appointment.setClinic(clinic);
@@ -0,0 +1,29 @@
+package dat.dto;
+
+import dat.enums.AppointmentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentStatsDTO {
+
+    private long total;
+    private Map<String, Long> byStatus;  // Every AppointmentStatus, including those with no appointments
+
+    // Counts indexed by AppointmentStatus ordinal, as kept by AppointmentStatsIndex
+    public AppointmentStatsDTO(long[] counts) {
+        this.byStatus = new LinkedHashMap<>();
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            byStatus.put(status.name(), counts[status.ordinal()]);
+            total += counts[status.ordinal()];
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package dat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkImportResultDTO {
+
+    private int received;
+    private int created;
+    private int chunks;  // Chunks committed
+    private List<RejectedRow> rejected = new ArrayList<>();
+    private String error;  // Set when the body could not be read to its end, null otherwise
+
+    // Index is the zero-based position of the row in the request body
+    public record RejectedRow(int index, String reason) {}
+}
@@ -22,6 +22,8 @@ public class ClinicDTO {
     private String contactPhone;
     private Boolean emergencyServices;
     private Long cityId;
+    private Double latitude;
+    private Double longitude;
     private List<OpeningHoursDTO> openingHours;  // List of opening hours
 
     // Constructor to convert from Clinic entity to ClinicDTO
@@ -34,6 +36,8 @@ public class ClinicDTO {
             this.emergencyServices = clinic.getEmergencyServices();
             // Convert City to cityId (if city exists)
             this.cityId = clinic.getCity() != null ? clinic.getCity().getId() : null;
+            this.latitude = clinic.getLatitude();
+            this.longitude = clinic.getLongitude();
 
             // Convert OpeningHours entity list to OpeningHoursDTO list
             this.openingHours = clinic.getOpeningHours() != null ?
@@ -50,6 +54,8 @@ public class ClinicDTO {
         clinic.setAddress(this.address);
         clinic.setContactPhone(this.contactPhone);
         clinic.setEmergencyServices(this.emergencyServices);
+        clinic.setLatitude(this.latitude);
+        clinic.setLongitude(this.longitude);
         // City association should be handled separately in the service/DAO layer
         // OpeningHours should also be set in the service/DAO layer
         return clinic;
@@ -0,0 +1,20 @@
+package dat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FreeSlotDTO {
+
+    private Long veterinarianId;
+    private Long clinicId;
+    private LocalDateTime start;  // Clinic wall-clock time, like AppointmentDTO.appointmentDateTime
+    private LocalDateTime end;
+}
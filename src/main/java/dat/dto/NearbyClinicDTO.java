@@ -0,0 +1,16 @@
+package dat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyClinicDTO {
+
+    private ClinicDTO clinic;
+    private Double distanceKm;  // Great-circle distance from the requested point
+}
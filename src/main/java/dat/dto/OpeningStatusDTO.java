@@ -0,0 +1,19 @@
+package dat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpeningStatusDTO {
+
+    private Long clinicId;
+    private Boolean openNow;
+    private ZonedDateTime nextOpening;  // Null when the clinic has no opening hours
+}
@@ -0,0 +1,28 @@
+package dat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageDTO<T> {
+
+    private List<T> items;
+    private Long nextCursor;  // Pass as ?after= to fetch the next page, null on the last page
+
+    // Build a page from a result fetched with limit + 1 rows, the extra row only signals that more rows exist
+    public static <T> PageDTO<T> of(List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() > limit) {
+            List<T> items = rows.subList(0, limit);
+            return new PageDTO<>(items, idOf.apply(items.get(limit - 1)));
+        }
+        return new PageDTO<>(rows, null);
+    }
+}
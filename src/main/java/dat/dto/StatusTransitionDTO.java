@@ -0,0 +1,16 @@
+package dat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTransitionDTO {
+
+    private String status;    // The new AppointmentStatus
+    private String expected;  // Only appointments in this status are changed, defaults to the one status that can move to the new one
+}
@@ -0,0 +1,20 @@
+package dat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusTransitionResultDTO {
+
+    private String from;
+    private String to;
+    private int updated;
+    private List<Long> ids;  // The appointments that changed, in ID order
+}
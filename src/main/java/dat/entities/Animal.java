@@ -3,6 +3,7 @@ package dat.entities;
 import dat.dto.AnimalDTO;
 import dat.enums.MedicalHistory;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import dat.enums.Animals;
@@ -41,6 +42,11 @@ public class Animal {
     @Column(name = "medical_history", nullable = false, length = 50)
     private MedicalHistory medicalHistory;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Method to convert from AnimalDTO to Animal
     public void convertFromDTO(AnimalDTO animalDTO) {
         if (animalDTO == null) {
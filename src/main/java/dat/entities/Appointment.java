@@ -5,6 +5,8 @@ import dat.enums.AppointmentStatus;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,11 +17,22 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        // Serve the calendar range queries, each is one index range scan in start time order
+        @Index(name = "idx_appointments_clinic_datetime", columnList = "clinic_id, appointment_datetime"),
+        @Index(name = "idx_appointments_veterinarian_datetime", columnList = "veterinarian_id, appointment_datetime"),
+        @Index(name = "idx_appointments_client_datetime", columnList = "client_id, appointment_datetime"),
+        @Index(name = "idx_appointments_animal_datetime", columnList = "animal_id, appointment_datetime"),
+        @Index(name = "idx_appointments_status_datetime", columnList = "status, appointment_datetime")  // Reminder loading
+})
 public class Appointment {
 
+    public static final int DEFAULT_DURATION_MINUTES = 30;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence instead of IDENTITY, so inserts can be batched. allocationSize matches hibernate.jdbc.batch_size.
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     @Column(name = "id", nullable = false, updatable = false)
     private Long id;
 
@@ -27,6 +40,11 @@ public class Appointment {
     @Column(name = "appointment_datetime", nullable = false)
     private LocalDateTime appointmentDateTime;
 
+    @Positive(message = "Duration must be positive")
+    @ColumnDefault("30")
+    @Column(name = "duration_minutes", nullable = false)
+    private Integer durationMinutes;
+
     @NotBlank(message = "Reason is required")
     @Column(name = "reason", nullable = false, length = 255)
     private String reason;
@@ -36,29 +54,36 @@ public class Appointment {
     @Column(name = "status", nullable = false)
     private AppointmentStatus status;
 
+    // The associations are lazy, reads select their foreign keys straight into AppointmentDTO
     @NotNull(message = "Clinic is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "clinic_id", nullable = false)
     private Clinic clinic;
 
     @NotNull(message = "Client is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "client_id", nullable = false)
     private Client client;
 
     @NotNull(message = "Animal is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "animal_id", nullable = false)
     private Animal animal;
 
     @NotNull(message = "Veterinarian is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "veterinarian_id", nullable = false)
     private Veterinarian veterinarian;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Method to convert from DTO
     public void convertFromDTO(AppointmentDTO appointmentDTO) {
         this.appointmentDateTime = appointmentDTO.getAppointmentDateTime();  // Corrected to match the field in DTO
+        this.durationMinutes = appointmentDTO.getDurationMinutes() != null ? appointmentDTO.getDurationMinutes() : DEFAULT_DURATION_MINUTES;
         this.reason = appointmentDTO.getReason();
         this.status = AppointmentStatus.valueOf(appointmentDTO.getStatus());
         // Clinic, Client, Animal, and Veterinarian should be set in the DAO or service layer
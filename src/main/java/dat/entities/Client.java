@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.*;
 
 import java.util.ArrayList;
@@ -57,6 +58,11 @@ public class Client {
     @JoinColumn(name = "city_id", nullable = false)
     private City city;  // Many Clients belong to one City
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Constructor without validation annotations (to use in DTOs, etc.)
     public Client(Long id, String name, Gender gender, String email, String phoneNumber, String address, City city, List<Animal> animals) {
         this.id = id;
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,9 +17,18 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "clinics")
+@NamedEntityGraph(name = Clinic.WITH_CITY_AND_OPENING_HOURS, attributeNodes = {
+        @NamedAttributeNode("city"),
+        @NamedAttributeNode("openingHours")
+})
+@Table(name = "clinics", indexes = {
+        @Index(name = "idx_clinics_city_id", columnList = "city_id, id")  // Serves city lookups paged by ID
+})
 public class Clinic {
 
+    // Fetch plan for building a ClinicDTO without lazy loads per clinic
+    public static final String WITH_CITY_AND_OPENING_HOURS = "Clinic.withCityAndOpeningHours";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id", nullable = false, updatable = false)
@@ -38,7 +48,7 @@ public class Clinic {
     private String contactPhone;
 
     @NotNull(message = "City is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "city_id", nullable = false)
     private City city;
 
@@ -46,10 +56,23 @@ public class Clinic {
     @Column(name = "emergency_services", nullable = false)
     private Boolean emergencyServices;
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     // One-to-many relationship with OpeningHours
     @OneToMany(mappedBy = "clinic", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OpeningHours> openingHours = new ArrayList<>();
 
+    // Optimistic lock version, incremented on every update and served as the ETag of the clinic.
+    // The default backfills rows that existed before the column was added.
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // Helper method to add an opening hour
     public void addOpeningHour(OpeningHours openingHour) {
         openingHours.add(openingHour);
@@ -68,6 +91,8 @@ public class Clinic {
         this.address = clinicDTO.getAddress();
         this.contactPhone = clinicDTO.getContactPhone();
         this.emergencyServices = clinicDTO.getEmergencyServices();
+        this.latitude = clinicDTO.getLatitude();
+        this.longitude = clinicDTO.getLongitude();
         this.city = city;  // The City entity is passed separately (fetched before conversion)
     }
 }
\ No newline at end of file
@@ -31,7 +31,7 @@ public class OpeningHours {
     private LocalTime closeTime;
 
     // Many-to-one relationship with Clinic
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "clinic_id", nullable = false)
     private Clinic clinic;
 }
\ No newline at end of file
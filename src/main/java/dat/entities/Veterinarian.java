@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import dat.enums.Specialization;
@@ -42,6 +43,11 @@ public class Veterinarian {
     @Column(name = "available_for_emergency", nullable = false, length = 100)
     private Availability availableForEmergency;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     public void convertFromDTO(VeterinarianDTO veterinarianDTO) {
         this.name = veterinarianDTO.getName();
         this.specialties = Specialization.valueOf(veterinarianDTO.getSpecialties());
@@ -1,7 +1,22 @@
 package dat.enums;
 
+import java.util.Arrays;
+import java.util.List;
+
 public enum AppointmentStatus {
     SCHEDULED,
     COMPLETED,
-    CANCELLED
-}
\ No newline at end of file
+    CANCELLED;
+
+    // A scheduled appointment is either completed or cancelled, both are final
+    public boolean canTransitionTo(AppointmentStatus target) {
+        return this == SCHEDULED && target != SCHEDULED;
+    }
+
+    // The statuses an appointment can move to this one from
+    public List<AppointmentStatus> predecessors() {
+        return Arrays.stream(values())
+                .filter(status -> status.canTransitionTo(this))
+                .toList();
+    }
+}
@@ -0,0 +1,110 @@
+package dat.index;
+
+import dat.enums.AppointmentStatus;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Appointment counts per clinic, per veterinarian and per day, each split by AppointmentStatus. The counts
+ * are loaded once with a GROUP BY and then kept current by applying the difference between the old and the
+ * new state of every appointment the DAO writes, so reading a count never touches the appointments table.
+ */
+public class AppointmentStatsIndex {
+
+    private static final int STATUSES = AppointmentStatus.values().length;
+
+    private static AppointmentStatsIndex instance;
+
+    private final Map<Long, AtomicLongArray> clinics = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLongArray> veterinarians = new ConcurrentHashMap<>();
+    private final Map<LocalDate, AtomicLongArray> days = new ConcurrentHashMap<>();
+    private final Map<OwnerDay, AtomicLongArray> clinicDays = new ConcurrentHashMap<>();
+    private final Map<OwnerDay, AtomicLongArray> veterinarianDays = new ConcurrentHashMap<>();
+
+    AppointmentStatsIndex() {}
+
+    public static synchronized AppointmentStatsIndex getInstance() {
+        if (instance == null) {
+            instance = new AppointmentStatsIndex();
+        }
+        return instance;
+    }
+
+    // What an appointment contributes to the counts
+    public record Entry(Long clinicId, Long veterinarianId, LocalDate day, AppointmentStatus status) {}
+
+    private record OwnerDay(Long ownerId, LocalDate day) {}
+
+    // Apply one write, before is null for a new appointment and after is null for a deleted one
+    public void changed(Entry before, Entry after) {
+        if (before != null && before.equals(after)) {
+            return;
+        }
+        if (before != null) {
+            add(before, -1);
+        }
+        if (after != null) {
+            add(after, 1);
+        }
+    }
+
+    // Add count appointments with the same clinic, veterinarian, day and status, used by the initial load
+    public void load(Entry entry, long count) {
+        add(entry, count);
+    }
+
+    public void clear() {
+        clinics.clear();
+        veterinarians.clear();
+        days.clear();
+        clinicDays.clear();
+        veterinarianDays.clear();
+    }
+
+    // Counts indexed by AppointmentStatus ordinal, all zero when nothing is known
+    public long[] forClinic(Long clinicId) {
+        return snapshot(clinics.get(clinicId));
+    }
+
+    public long[] forClinicOnDay(Long clinicId, LocalDate day) {
+        return snapshot(clinicDays.get(new OwnerDay(clinicId, day)));
+    }
+
+    public long[] forVeterinarian(Long veterinarianId) {
+        return snapshot(veterinarians.get(veterinarianId));
+    }
+
+    public long[] forVeterinarianOnDay(Long veterinarianId, LocalDate day) {
+        return snapshot(veterinarianDays.get(new OwnerDay(veterinarianId, day)));
+    }
+
+    public long[] forDay(LocalDate day) {
+        return snapshot(days.get(day));
+    }
+
+    private void add(Entry entry, long delta) {
+        int status = entry.status().ordinal();
+        counts(clinics, entry.clinicId()).addAndGet(status, delta);
+        counts(veterinarians, entry.veterinarianId()).addAndGet(status, delta);
+        counts(days, entry.day()).addAndGet(status, delta);
+        counts(clinicDays, new OwnerDay(entry.clinicId(), entry.day())).addAndGet(status, delta);
+        counts(veterinarianDays, new OwnerDay(entry.veterinarianId(), entry.day())).addAndGet(status, delta);
+    }
+
+    private static <K> AtomicLongArray counts(Map<K, AtomicLongArray> map, K key) {
+        return map.computeIfAbsent(key, k -> new AtomicLongArray(STATUSES));
+    }
+
+    private static long[] snapshot(AtomicLongArray counts) {
+        long[] copy = new long[STATUSES];
+        if (counts != null) {
+            for (int i = 0; i < STATUSES; i++) {
+                copy[i] = counts.get(i);
+            }
+        }
+        return copy;
+    }
+}
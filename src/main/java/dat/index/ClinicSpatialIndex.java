@@ -0,0 +1,213 @@
+package dat.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory grid index over clinic coordinates used to answer "nearest clinic" lookups.
+ * Clinics are bucketed into cells of CELL_SIZE degrees, and a k-nearest search walks outwards
+ * ring by ring from the query cell until no unvisited cell can hold a closer clinic.
+ */
+public class ClinicSpatialIndex {
+
+    private static final double CELL_SIZE = 0.1;  // ~11 km north-south
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+    private static final int COLUMNS = (int) Math.round(360 / CELL_SIZE);
+    private static final int MAX_RING = COLUMNS / 2 - 1;  // Wider rings would wrap onto cells already scanned
+
+    private static ClinicSpatialIndex instance;
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ClinicSpatialIndex() {}
+
+    public static synchronized ClinicSpatialIndex getInstance() {
+        if (instance == null) {
+            instance = new ClinicSpatialIndex();
+        }
+        return instance;
+    }
+
+    public record Neighbour(Long clinicId, double distanceKm) {}
+
+    private record Entry(Long clinicId, double latitude, double longitude, long cell) {}
+
+    // Insert or move a clinic. Clinics without coordinates are removed from the index.
+    public void put(Long clinicId, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            remove(clinicId);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeEntry(clinicId);
+            Entry entry = new Entry(clinicId, latitude, longitude, cellKey(row(latitude), column(longitude)));
+            entries.put(clinicId, entry);
+            cells.computeIfAbsent(entry.cell(), c -> new ArrayList<>()).add(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long clinicId) {
+        lock.writeLock().lock();
+        try {
+            removeEntry(clinicId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            cells.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Distance from the given point to one clinic, null when the clinic has no coordinates
+    public Double distanceKm(Long clinicId, double latitude, double longitude) {
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(clinicId);
+            return entry == null ? null : haversineKm(latitude, longitude, entry.latitude(), entry.longitude());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns up to k clinics ordered by great-circle distance from the given point
+    public List<Neighbour> nearest(double latitude, double longitude, int k) {
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
+        }
+        if (k <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // Max-heap on distance holding the k best candidates seen so far
+            PriorityQueue<Neighbour> best = new PriorityQueue<>(k, (a, b) -> Double.compare(b.distanceKm(), a.distanceKm()));
+            int centerRow = row(latitude);
+            int centerColumn = column(longitude);
+            int visited = 0;
+            int probed = 0;
+
+            for (int ring = 0; ring <= MAX_RING; ring++) {
+                // Once the rings cost more cell lookups than there are clinics, scanning them all is cheaper
+                probed += ring == 0 ? 1 : 8 * ring;
+                if (probed > entries.size()) {
+                    break;
+                }
+                visited += scanRing(centerRow, centerColumn, ring, latitude, longitude, k, best);
+
+                // Anything outside this ring is at least `ring` cells away along one axis
+                if (visited >= entries.size() || (best.size() == k && best.peek().distanceKm() <= minDistanceOutside(latitude, ring))) {
+                    return sorted(best);
+                }
+            }
+
+            // Sparse data around the point, or half the globe searched without settling, fall back to a full scan
+            best.clear();
+            for (Entry entry : entries.values()) {
+                offer(best, k, entry, haversineKm(latitude, longitude, entry.latitude(), entry.longitude()));
+            }
+            return sorted(best);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int scanRing(int centerRow, int centerColumn, int ring, double latitude, double longitude, int k, PriorityQueue<Neighbour> best) {
+        int visited = 0;
+        for (int dRow = -ring; dRow <= ring; dRow++) {
+            boolean edgeRow = Math.abs(dRow) == ring;
+            // Inner rows only contribute their two edge cells
+            int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+            for (int dColumn = -ring; dColumn <= ring; dColumn += step) {
+                List<Entry> cell = cells.get(cellKey(centerRow + dRow, centerColumn + dColumn));
+                if (cell == null) {
+                    continue;
+                }
+                for (Entry entry : cell) {
+                    visited++;
+                    offer(best, k, entry, haversineKm(latitude, longitude, entry.latitude(), entry.longitude()));
+                }
+            }
+        }
+        return visited;
+    }
+
+    private static void offer(PriorityQueue<Neighbour> best, int k, Entry entry, double distance) {
+        if (best.size() < k) {
+            best.add(new Neighbour(entry.clinicId(), distance));
+        } else if (distance < best.peek().distanceKm()) {
+            best.poll();
+            best.add(new Neighbour(entry.clinicId(), distance));
+        }
+    }
+
+    private static List<Neighbour> sorted(PriorityQueue<Neighbour> best) {
+        List<Neighbour> result = new ArrayList<>(best);
+        result.sort((a, b) -> Double.compare(a.distanceKm(), b.distanceKm()));
+        return result;
+    }
+
+    private void removeEntry(Long clinicId) {
+        Entry existing = entries.remove(clinicId);
+        if (existing != null) {
+            List<Entry> cell = cells.get(existing.cell());
+            cell.remove(existing);
+            if (cell.isEmpty()) {
+                cells.remove(existing.cell());
+            }
+        }
+    }
+
+    // Lower bound for the distance to any clinic outside the scanned rings
+    private static double minDistanceOutside(double latitude, int ring) {
+        double degrees = ring * CELL_SIZE;
+        double furthestLatitude = Math.min(89.0, Math.abs(latitude) + degrees);
+        return degrees * KM_PER_DEGREE * Math.cos(Math.toRadians(furthestLatitude));
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / CELL_SIZE);
+    }
+
+    private static int column(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / CELL_SIZE);
+    }
+
+    private static long cellKey(int row, int column) {
+        int wrapped = Math.floorMod(column, COLUMNS);  // Wrap around the antimeridian
+        return ((long) row << 32) | wrapped;
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
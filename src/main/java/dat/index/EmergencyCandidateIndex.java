@@ -0,0 +1,153 @@
+package dat.index;
+
+import dat.enums.Availability;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Precomputed set of emergency candidates: clinics with emergency services that have at least one
+ * veterinarian whose emergency availability is AVAILABLE. The set is recomputed on every clinic or
+ * veterinarian change and published together with each clinic's compiled schedule, so a lookup is
+ * one bit test per candidate and never touches the database or a map.
+ */
+public class EmergencyCandidateIndex {
+
+    // p99 budget for selecting the open candidates, see EmergencyCandidateIndexBenchmark in the test sources
+    public static final long LOOKUP_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static EmergencyCandidateIndex instance;
+
+    private final OpeningScheduleIndex scheduleIndex;
+    private final Set<Long> emergencyClinics = new HashSet<>();
+    private final Map<Long, Long> availableVets = new HashMap<>();  // Veterinarian ID -> clinic ID
+    private final Map<Long, Integer> availableVetsPerClinic = new HashMap<>();
+    private volatile Candidates candidates = new Candidates(new long[0], new BitSet[0]);
+
+    EmergencyCandidateIndex(OpeningScheduleIndex scheduleIndex) {
+        this.scheduleIndex = scheduleIndex;
+    }
+
+    public static synchronized EmergencyCandidateIndex getInstance() {
+        if (instance == null) {
+            instance = new EmergencyCandidateIndex(OpeningScheduleIndex.getInstance());
+        }
+        return instance;
+    }
+
+    // Parallel arrays, schedules[i] is the compiled schedule of ids[i] (null when it has no opening hours)
+    private record Candidates(long[] ids, BitSet[] schedules) {}
+
+    public record VeterinarianState(Long vetId, Long clinicId, Availability availability) {}
+
+    public synchronized void putClinic(Long clinicId, Boolean emergencyServices) {
+        boolean changed = Boolean.TRUE.equals(emergencyServices) ? emergencyClinics.add(clinicId) : emergencyClinics.remove(clinicId);
+        if (changed) {
+            publish();
+        }
+    }
+
+    public synchronized void removeClinic(Long clinicId) {
+        if (emergencyClinics.remove(clinicId)) {
+            publish();
+        }
+    }
+
+    public synchronized void putVeterinarian(Long vetId, Long clinicId, Availability availability) {
+        boolean changed = unlinkVeterinarian(vetId);
+        if (availability == Availability.AVAILABLE && clinicId != null) {
+            availableVets.put(vetId, clinicId);
+            availableVetsPerClinic.merge(clinicId, 1, Integer::sum);
+            changed = true;
+        }
+        if (changed) {
+            publish();
+        }
+    }
+
+    public synchronized void removeVeterinarian(Long vetId) {
+        if (unlinkVeterinarian(vetId)) {
+            publish();
+        }
+    }
+
+    // Replace all clinic flags at once, publishing a single new candidate set
+    public synchronized void loadClinics(Map<Long, Boolean> emergencyServicesByClinic) {
+        emergencyClinics.clear();
+        emergencyServicesByClinic.forEach((clinicId, emergency) -> {
+            if (Boolean.TRUE.equals(emergency)) {
+                emergencyClinics.add(clinicId);
+            }
+        });
+        publish();
+    }
+
+    // Replace all veterinarians at once, publishing a single new candidate set
+    public synchronized void loadVeterinarians(Collection<VeterinarianState> veterinarians) {
+        availableVets.clear();
+        availableVetsPerClinic.clear();
+        for (VeterinarianState vet : veterinarians) {
+            if (vet.availability() == Availability.AVAILABLE && vet.clinicId() != null) {
+                availableVets.put(vet.vetId(), vet.clinicId());
+                availableVetsPerClinic.merge(vet.clinicId(), 1, Integer::sum);
+            }
+        }
+        publish();
+    }
+
+    // Must be called after the schedule of a clinic is rebuilt in the OpeningScheduleIndex
+    public synchronized void scheduleChanged(Long clinicId) {
+        if (Arrays.binarySearch(candidates.ids(), clinicId) >= 0) {
+            publish();
+        }
+    }
+
+    // Emergency candidates that are open at the given moment, in clinic ID order
+    public long[] openCandidates(ZonedDateTime at) {
+        Candidates snapshot = candidates;
+        // Convert to clinic wall-clock time once instead of per candidate
+        LocalDateTime local = at.withZoneSameInstant(OpeningScheduleIndex.CLINIC_ZONE).toLocalDateTime();
+        int minuteOfWeek = (local.getDayOfWeek().getValue() - 1) * OpeningScheduleIndex.MINUTES_PER_DAY
+                + local.getHour() * 60 + local.getMinute();
+        long[] ids = snapshot.ids();
+        BitSet[] schedules = snapshot.schedules();
+        long[] open = new long[ids.length];
+        int count = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (schedules[i] != null && schedules[i].get(minuteOfWeek)) {
+                open[count++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(open, count);
+    }
+
+    private boolean unlinkVeterinarian(Long vetId) {
+        Long previousClinic = availableVets.remove(vetId);
+        if (previousClinic == null) {
+            return false;
+        }
+        availableVetsPerClinic.computeIfPresent(previousClinic, (id, count) -> count > 1 ? count - 1 : null);
+        return true;
+    }
+
+    private void publish() {
+        long[] ids = emergencyClinics.stream()
+                .filter(availableVetsPerClinic::containsKey)
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+        BitSet[] schedules = new BitSet[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            schedules[i] = scheduleIndex.schedule(ids[i]);
+        }
+        candidates = new Candidates(ids, schedules);
+    }
+}
@@ -0,0 +1,125 @@
+package dat.index;
+
+import dat.enums.Weekday;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precompiled weekly opening schedules, one bit per minute of the week for every clinic.
+ * Opening hours are wall-clock times in Europe/Copenhagen, so lookups convert the instant to local
+ * time first, which takes care of daylight saving time. An "is open" check is a single bit test.
+ */
+public class OpeningScheduleIndex {
+
+    public static final ZoneId CLINIC_ZONE = ZoneId.of("Europe/Copenhagen");
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    private static OpeningScheduleIndex instance;
+
+    // Schedules are never modified after they are published, a rebuild replaces the whole BitSet
+    private final Map<Long, BitSet> schedules = new ConcurrentHashMap<>();
+
+    OpeningScheduleIndex() {}
+
+    public static synchronized OpeningScheduleIndex getInstance() {
+        if (instance == null) {
+            instance = new OpeningScheduleIndex();
+        }
+        return instance;
+    }
+
+    public record Interval(Weekday weekday, LocalTime openTime, LocalTime closeTime) {}
+
+    // Compile and (re)place the schedule of one clinic
+    public void put(Long clinicId, Collection<Interval> intervals) {
+        schedules.put(clinicId, compile(intervals));
+    }
+
+    public void remove(Long clinicId) {
+        schedules.remove(clinicId);
+    }
+
+    public void clear() {
+        schedules.clear();
+    }
+
+    public boolean isOpen(Long clinicId, ZonedDateTime at) {
+        BitSet schedule = schedules.get(clinicId);
+        return schedule != null && schedule.get(minuteOfWeek(at.withZoneSameInstant(CLINIC_ZONE).toLocalDateTime()));
+    }
+
+    // Local-time variant used when the caller already works in clinic wall-clock time
+    public boolean isOpen(Long clinicId, Weekday weekday, int minuteOfDay) {
+        BitSet schedule = schedules.get(clinicId);
+        return schedule != null && schedule.get(weekday.ordinal() * MINUTES_PER_DAY + minuteOfDay);
+    }
+
+    // Compiled schedule of one clinic, shared read-only with other indexes
+    BitSet schedule(Long clinicId) {
+        return schedules.get(clinicId);
+    }
+
+    public List<Long> openClinics(ZonedDateTime at) {
+        int minute = minuteOfWeek(at.withZoneSameInstant(CLINIC_ZONE).toLocalDateTime());
+        List<Long> open = new ArrayList<>();
+        schedules.forEach((clinicId, schedule) -> {
+            if (schedule.get(minute)) {
+                open.add(clinicId);
+            }
+        });
+        return open;
+    }
+
+    // Earliest moment at or after `from` when the clinic is open, empty if it has no opening hours
+    public Optional<ZonedDateTime> nextOpening(Long clinicId, ZonedDateTime from) {
+        BitSet schedule = schedules.get(clinicId);
+        if (schedule == null || schedule.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDateTime local = from.withZoneSameInstant(CLINIC_ZONE).toLocalDateTime().truncatedTo(ChronoUnit.MINUTES);
+        int now = minuteOfWeek(local);
+        int next = schedule.nextSetBit(now);
+        int minutesAhead = next >= 0 ? next - now : schedule.nextSetBit(0) + MINUTES_PER_WEEK - now;  // Wrap into next week
+        if (minutesAhead == 0) {
+            return Optional.of(from);
+        }
+        // Wall-clock arithmetic, ZonedDateTime.of moves times inside a DST gap forward
+        return Optional.of(ZonedDateTime.of(local.plusMinutes(minutesAhead), CLINIC_ZONE));
+    }
+
+    private static BitSet compile(Collection<Interval> intervals) {
+        BitSet schedule = new BitSet(MINUTES_PER_WEEK);
+        for (Interval interval : intervals) {
+            int dayStart = interval.weekday().ordinal() * MINUTES_PER_DAY;
+            int open = dayStart + interval.openTime().toSecondOfDay() / 60;
+            int close = dayStart + interval.closeTime().toSecondOfDay() / 60;
+            if (close <= open) {
+                close += MINUTES_PER_DAY;  // Closes after midnight, or open around the clock when open == close
+            }
+            if (close <= MINUTES_PER_WEEK) {
+                schedule.set(open, close);
+            } else {
+                // Sunday night into Monday morning
+                schedule.set(open, MINUTES_PER_WEEK);
+                schedule.set(0, close - MINUTES_PER_WEEK);
+            }
+        }
+        return schedule;
+    }
+
+    private static int minuteOfWeek(LocalDateTime local) {
+        return (local.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + local.getHour() * 60 + local.getMinute();
+    }
+}
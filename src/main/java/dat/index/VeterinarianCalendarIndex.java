@@ -0,0 +1,400 @@
+package dat.index;
+
+import dat.enums.Specialization;
+import dat.enums.Weekday;
+import dat.util.StripedLocks;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * In-memory day calendars for every veterinarian, used to find free appointment slots without
+ * touching the database. A day is split into SLOT_MINUTES slots and stored as a BitSet of booked
+ * slots; free time is the clinic's opening slots for that weekday minus the booked slots.
+ * All times are clinic wall-clock times, like Appointment.appointmentDateTime and OpeningHours.
+ */
+public class VeterinarianCalendarIndex {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = OpeningScheduleIndex.MINUTES_PER_DAY / SLOT_MINUTES;
+
+    private static final ConcurrentNavigableMap<LocalDate, Day> EMPTY_CALENDAR = new ConcurrentSkipListMap<>();
+
+    private static VeterinarianCalendarIndex instance;
+
+    private final OpeningScheduleIndex scheduleIndex;
+    private final Map<Long, Veterinarian> veterinarians = new ConcurrentHashMap<>();
+    private final Map<Long, Long> clinicCities = new ConcurrentHashMap<>();  // Clinic ID -> city ID
+    private final Map<Long, Booking> bookings = new ConcurrentHashMap<>();  // Appointment ID -> booking
+    // The days of each veterinarian from today on that have bookings. A Day is never modified after it is published,
+    // so overlaps and the search read it without locking. Changes hold the veterinarian's stripe of vetLocks.
+    private final Map<Long, ConcurrentNavigableMap<LocalDate, Day>> calendars = new ConcurrentHashMap<>();
+    private final StripedLocks vetLocks = new StripedLocks(64);
+    private ScheduledExecutorService evictor;
+    private final Map<Long, OpeningSlots> openingSlots = new ConcurrentHashMap<>();  // Clinic ID -> weekly slots
+
+    VeterinarianCalendarIndex(OpeningScheduleIndex scheduleIndex) {
+        this.scheduleIndex = scheduleIndex;
+    }
+
+    public static synchronized VeterinarianCalendarIndex getInstance() {
+        if (instance == null) {
+            instance = new VeterinarianCalendarIndex(OpeningScheduleIndex.getInstance());
+        }
+        return instance;
+    }
+
+    public record Veterinarian(Long id, Long clinicId, Specialization specialization) {}
+
+    public record Booking(Long appointmentId, Long veterinarianId, LocalDateTime start, int durationMinutes) {
+        LocalDateTime end() {
+            return start.plusMinutes(durationMinutes);
+        }
+    }
+
+    public record FreeSlot(Long veterinarianId, Long clinicId, LocalDateTime start, LocalDateTime end) {}
+
+    // One day of a veterinarian: the bookings that touch it and the slots they book
+    private record Day(List<Booking> bookings, BitSet busy) {}
+
+    // Opening slots per weekday, derived from the clinic's minute schedule and rebuilt when it is replaced
+    private record OpeningSlots(BitSet schedule, BitSet[] days) {}
+
+    public void putVeterinarian(Long vetId, Long clinicId, Specialization specialization) {
+        veterinarians.put(vetId, new Veterinarian(vetId, clinicId, specialization));
+    }
+
+    public void removeVeterinarian(Long vetId) {
+        veterinarians.remove(vetId);
+    }
+
+    public void putClinic(Long clinicId, Long cityId) {
+        if (cityId == null) {
+            clinicCities.remove(clinicId);
+        } else {
+            clinicCities.put(clinicId, cityId);
+        }
+    }
+
+    public void removeClinic(Long clinicId) {
+        clinicCities.remove(clinicId);
+        openingSlots.remove(clinicId);
+    }
+
+    // Insert or move a booking. Bookings without a veterinarian or start time free their old slots.
+    public void putBooking(Long appointmentId, Long vetId, LocalDateTime start, Integer durationMinutes) {
+        boolean booked = vetId != null && start != null && durationMinutes != null && durationMinutes > 0;
+        replaceBooking(appointmentId, booked ? new Booking(appointmentId, vetId, start, durationMinutes) : null);
+    }
+
+    public void removeBooking(Long appointmentId) {
+        replaceBooking(appointmentId, null);
+    }
+
+    /**
+     * Whether [start, start + durationMinutes) overlaps a booking of the veterinarian, ignoring the given
+     * appointment (the one being moved). Exact to the minute, unlike the slot calendars used by the search.
+     * Only looks at the days the interval touches and takes no lock, so checks never contend with each other.
+     */
+    public boolean overlaps(Long vetId, LocalDateTime start, int durationMinutes, Long ignoreAppointmentId) {
+        Map<LocalDate, Day> days = calendars.get(vetId);
+        if (days == null) {
+            return false;
+        }
+        LocalDateTime end = start.plusMinutes(durationMinutes);
+        for (LocalDate date = start.toLocalDate(); date.atStartOfDay().isBefore(end); date = date.plusDays(1)) {
+            Day day = days.get(date);
+            if (day == null) {
+                continue;
+            }
+            for (Booking booking : day.bookings()) {
+                if (!booking.appointmentId().equals(ignoreAppointmentId) && booking.start().isBefore(end) && start.isBefore(booking.end())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Replaces all bookings. Meant for startup, before bookings are changed one by one.
+    public void loadBookings(List<Booking> all) {
+        LocalDate today = LocalDate.now(OpeningScheduleIndex.CLINIC_ZONE);
+        Map<Long, Booking> current = new HashMap<>();
+        Map<Long, ConcurrentNavigableMap<LocalDate, Day>> loaded = new HashMap<>();
+        for (Booking booking : all) {
+            if (booking.end().isAfter(today.atStartOfDay())) {
+                current.put(booking.appointmentId(), booking);
+                addToDays(booking, loaded.computeIfAbsent(booking.veterinarianId(), id -> new ConcurrentSkipListMap<>()), today);
+            }
+        }
+        bookings.clear();
+        calendars.clear();
+        bookings.putAll(current);
+        calendars.putAll(loaded);
+    }
+
+    // Drop the days before the given day of every veterinarian, each under its own stripe
+    public void evictBefore(LocalDate today) {
+        for (Long vetId : calendars.keySet()) {
+            Lock lock = vetLocks.forKey(vetId);
+            lock.lock();
+            try {
+                ConcurrentNavigableMap<LocalDate, Day> days = calendars.get(vetId);
+                if (days != null) {
+                    evictPastDays(days, today);
+                    if (days.isEmpty()) {
+                        calendars.remove(vetId);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Changes only evict the days of their own veterinarian, this also prunes the ones nobody books.
+    // Hourly rather than at midnight, so a daylight saving shift cannot skip a day.
+    public synchronized void startEviction() {
+        if (evictor != null) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "calendar-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> evictBefore(LocalDate.now(OpeningScheduleIndex.CLINIC_ZONE)), 1, 1, TimeUnit.HOURS);
+    }
+
+    // Number of bookings held, past ones are evicted
+    int size() {
+        return bookings.size();
+    }
+
+    /**
+     * Earliest free slot of every matching veterinarian within [from, to), earliest first.
+     * Specialization and city are optional filters. A slot must fit inside one opening period of a single day.
+     */
+    public List<FreeSlot> findFreeSlots(Specialization specialization, Long cityId, LocalDateTime from, LocalDateTime to,
+                                        int durationMinutes, int limit) {
+        int slotsNeeded = Math.max(1, (durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+        List<FreeSlot> found = new ArrayList<>();
+        for (Veterinarian vet : veterinarians.values()) {
+            if (specialization != null && vet.specialization() != specialization) {
+                continue;
+            }
+            if (cityId != null && !cityId.equals(clinicCities.get(vet.clinicId()))) {
+                continue;
+            }
+            FreeSlot slot = earliestFreeSlot(vet, from, to, slotsNeeded);
+            if (slot != null) {
+                found.add(slot);
+            }
+        }
+        found.sort(Comparator.comparing(FreeSlot::start).thenComparing(FreeSlot::veterinarianId));
+        return found.size() > limit ? found.subList(0, limit) : found;
+    }
+
+    private FreeSlot earliestFreeSlot(Veterinarian vet, LocalDateTime from, LocalDateTime to, int slotsNeeded) {
+        OpeningSlots opening = openingSlots(vet.clinicId());
+        if (opening == null) {
+            return null;
+        }
+        Map<LocalDate, Day> vetDays = calendars.getOrDefault(vet.id(), EMPTY_CALENDAR);
+        LocalDate lastDay = to.toLocalDate();
+        for (LocalDate day = from.toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            BitSet open = opening.days()[day.getDayOfWeek().getValue() - 1];
+            if (open.isEmpty()) {
+                continue;
+            }
+            int windowStart = day.equals(from.toLocalDate()) ? ceilSlot(from.toLocalTime()) : 0;
+            int windowEnd = day.equals(lastDay) ? floorSlot(to.toLocalTime()) : SLOTS_PER_DAY;
+
+            BitSet free = (BitSet) open.clone();
+            Day booked = vetDays.get(day);
+            if (booked != null) {
+                free.andNot(booked.busy());
+            }
+            // Walk the runs of free slots and take the first one long enough
+            int start = free.nextSetBit(windowStart);
+            while (start >= 0 && start + slotsNeeded <= windowEnd) {
+                int end = free.nextClearBit(start);
+                if (end - start >= slotsNeeded) {
+                    LocalDateTime slotStart = day.atStartOfDay().plusMinutes((long) start * SLOT_MINUTES);
+                    return new FreeSlot(vet.id(), vet.clinicId(), slotStart, slotStart.plusMinutes((long) slotsNeeded * SLOT_MINUTES));
+                }
+                start = free.nextSetBit(end);
+            }
+        }
+        return null;
+    }
+
+    private OpeningSlots openingSlots(Long clinicId) {
+        BitSet schedule = scheduleIndex.schedule(clinicId);
+        if (schedule == null) {
+            return null;
+        }
+        OpeningSlots cached = openingSlots.get(clinicId);
+        if (cached != null && cached.schedule() == schedule) {
+            return cached;
+        }
+        // A slot is open only if the clinic is open for every minute of it
+        BitSet[] days = new BitSet[Weekday.values().length];
+        for (int day = 0; day < days.length; day++) {
+            days[day] = new BitSet(SLOTS_PER_DAY);
+            for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+                int firstMinute = day * OpeningScheduleIndex.MINUTES_PER_DAY + slot * SLOT_MINUTES;
+                if (schedule.nextClearBit(firstMinute) >= firstMinute + SLOT_MINUTES) {
+                    days[day].set(slot);
+                }
+            }
+        }
+        OpeningSlots compiled = new OpeningSlots(schedule, days);
+        openingSlots.put(clinicId, compiled);
+        return compiled;
+    }
+
+    // Swap an appointment's booking for another, or for none, under the stripes of the veterinarians involved
+    private void replaceBooking(Long appointmentId, Booking booking) {
+        LocalDate today = LocalDate.now(OpeningScheduleIndex.CLINIC_ZONE);
+        if (booking != null && !booking.end().isAfter(today.atStartOfDay())) {
+            booking = null;  // Over before today, so it can no longer overlap anything
+        }
+        while (true) {
+            Booking previous = bookings.get(appointmentId);
+            Set<Long> vetIds = new HashSet<>();
+            if (previous != null) {
+                vetIds.add(previous.veterinarianId());
+            }
+            if (booking != null) {
+                vetIds.add(booking.veterinarianId());
+            }
+            List<Lock> locks = vetLocks.forKeys(vetIds);
+            locks.forEach(Lock::lock);
+            try {
+                // The appointment may have moved to a veterinarian whose stripe is not held, then try again
+                if (bookings.get(appointmentId) == previous) {
+                    if (previous != null) {
+                        bookings.remove(appointmentId);
+                        removeFromDays(previous);
+                    }
+                    if (booking != null) {
+                        bookings.put(appointmentId, booking);
+                        ConcurrentNavigableMap<LocalDate, Day> days = calendars.computeIfAbsent(booking.veterinarianId(), id -> new ConcurrentSkipListMap<>());
+                        evictPastDays(days, today);
+                        addToDays(booking, days, today);
+                    }
+                    return;
+                }
+            } finally {
+                for (int i = locks.size() - 1; i >= 0; i--) {
+                    locks.get(i).unlock();
+                }
+            }
+        }
+    }
+
+    // Add a booking to the days it touches from today on. The caller holds the veterinarian's stripe or owns the days.
+    private static void addToDays(Booking booking, ConcurrentNavigableMap<LocalDate, Day> days, LocalDate today) {
+        forEachDay(booking, (date, fromSlot, toSlot) -> {
+            if (date.isBefore(today)) {
+                return;
+            }
+            Day day = days.get(date);
+            List<Booking> dayBookings = new ArrayList<>(day != null ? day.bookings() : List.of());
+            dayBookings.add(booking);
+            BitSet busy = day != null ? (BitSet) day.busy().clone() : new BitSet(SLOTS_PER_DAY);
+            busy.set(fromSlot, toSlot);
+            days.put(date, new Day(List.copyOf(dayBookings), busy));
+        });
+    }
+
+    // Take a booking off its days and recompute their busy slots from the bookings left. The caller holds the stripe.
+    private void removeFromDays(Booking booking) {
+        ConcurrentNavigableMap<LocalDate, Day> days = calendars.get(booking.veterinarianId());
+        if (days == null) {
+            return;
+        }
+        forEachDay(booking, (date, fromSlot, toSlot) -> {
+            Day day = days.get(date);
+            if (day == null) {
+                return;
+            }
+            List<Booking> remaining = day.bookings().stream()
+                    .filter(other -> !other.appointmentId().equals(booking.appointmentId()))
+                    .toList();
+            if (remaining.isEmpty()) {
+                days.remove(date);
+                return;
+            }
+            BitSet busy = new BitSet(SLOTS_PER_DAY);
+            for (Booking other : remaining) {
+                forEachDay(other, (otherDate, otherFrom, otherTo) -> {
+                    if (otherDate.equals(date)) {
+                        busy.set(otherFrom, otherTo);
+                    }
+                });
+            }
+            days.put(date, new Day(remaining, busy));
+        });
+        if (days.isEmpty()) {
+            calendars.remove(booking.veterinarianId());
+        }
+    }
+
+    // Drop the days before today, and the bookings that lie entirely on them. The caller holds the stripe.
+    private void evictPastDays(ConcurrentNavigableMap<LocalDate, Day> days, LocalDate today) {
+        Map<LocalDate, Day> past = days.headMap(today);
+        LocalDateTime startOfToday = today.atStartOfDay();
+        for (Day day : past.values()) {
+            for (Booking booking : day.bookings()) {
+                if (!booking.end().isAfter(startOfToday)) {
+                    bookings.remove(booking.appointmentId(), booking);
+                }
+            }
+        }
+        past.clear();
+    }
+
+    private interface DaySlots {
+        void accept(LocalDate day, int fromSlot, int toSlot);
+    }
+
+    // Split a booking into per-day slot ranges, a booking is rounded out to whole slots
+    private static void forEachDay(Booking booking, DaySlots action) {
+        LocalDateTime start = booking.start();
+        LocalDateTime end = booking.end();
+        for (LocalDate day = start.toLocalDate(); day.atStartOfDay().isBefore(end); day = day.plusDays(1)) {
+            int fromSlot = day.equals(start.toLocalDate()) ? floorSlot(start.toLocalTime()) : 0;
+            int toSlot = day.equals(end.toLocalDate()) ? ceilSlot(end.toLocalTime()) : SLOTS_PER_DAY;
+            if (toSlot > fromSlot) {
+                action.accept(day, fromSlot, toSlot);
+            }
+        }
+    }
+
+    private static int floorSlot(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    private static int ceilSlot(LocalTime time) {
+        int minutes = time.getHour() * 60 + time.getMinute() + (time.getSecond() > 0 || time.getNano() > 0 ? 1 : 0);
+        return (minutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+    }
+}
@@ -0,0 +1,19 @@
+package dat.reminder;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Collects reminders in a queue, for tests and for consumers that poll
+public class InMemoryReminderSink implements ReminderSink {
+
+    private final BlockingQueue<Reminder> queue = new LinkedBlockingQueue<>();
+
+    @Override
+    public void send(Reminder reminder) {
+        queue.add(reminder);
+    }
+
+    public BlockingQueue<Reminder> getQueue() {
+        return queue;
+    }
+}
@@ -0,0 +1,15 @@
+package dat.reminder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Default sink until a real delivery channel is configured
+public class LoggingReminderSink implements ReminderSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingReminderSink.class);
+
+    @Override
+    public void send(Reminder reminder) {
+        logger.info("Reminder {} for appointment {} at {}", reminder.kind(), reminder.appointmentId(), reminder.appointmentDateTime());
+    }
+}
@@ -0,0 +1,6 @@
+package dat.reminder;
+
+import java.time.LocalDateTime;
+
+// A reminder that is due, appointmentDateTime is clinic wall-clock time like Appointment.appointmentDateTime
+public record Reminder(Long appointmentId, ReminderKind kind, LocalDateTime appointmentDateTime) {}
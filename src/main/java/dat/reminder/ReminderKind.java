@@ -0,0 +1,18 @@
+package dat.reminder;
+
+import java.time.Duration;
+
+public enum ReminderKind {
+    DAY_BEFORE(Duration.ofHours(24)),
+    HOUR_BEFORE(Duration.ofHours(1));
+
+    private final Duration lead;  // How long before the appointment the reminder is sent
+
+    ReminderKind(Duration lead) {
+        this.lead = lead;
+    }
+
+    public Duration getLead() {
+        return lead;
+    }
+}
@@ -0,0 +1,211 @@
+package dat.reminder;
+
+import dat.index.OpeningScheduleIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Sends a reminder 24 hours and 1 hour before every scheduled appointment. Pending reminders are timers in
+ * a TimingWheel with one tick per second. Only reminders due within HORIZON are held in memory; the
+ * horizon is moved forward every LOAD_INTERVAL by loading the next stretch of appointments from the
+ * AppointmentSource, and the DAO reports every change in between. The load runs without the lock, so
+ * the DAO is never held up by it; a change reported during a load wins over what the load read.
+ *
+ * Reminders whose time has already passed are not sent, so a restart never repeats reminders.
+ */
+public class ReminderScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+
+    public static final int MAX_PENDING = 1 << 20;
+    static final Duration HORIZON = Duration.ofHours(48);
+    static final Duration LOAD_INTERVAL = Duration.ofHours(1);
+    private static final Duration MIN_LEAD = ReminderKind.HOUR_BEFORE.getLead();
+    private static final Duration MAX_LEAD = ReminderKind.DAY_BEFORE.getLead();
+    private static final ReminderKind[] KINDS = ReminderKind.values();
+
+    private static ReminderScheduler instance;
+
+    private final TimingWheel wheel = new TimingWheel(MAX_PENDING, nowSecond());
+    private volatile ReminderSink sink = new LoggingReminderSink();
+    private AppointmentSource source;
+    private ScheduledExecutorService executor;
+    private long loadedUntil;  // Epoch second, every reminder due before it is in the wheel. Guarded by this.
+    private long loadingUntil;  // Epoch second the running load extends the horizon to, 0 when none runs. Guarded by this.
+    private final Set<Long> changedDuringLoad = new HashSet<>();  // Guarded by this
+
+    ReminderScheduler() {}
+
+    public static synchronized ReminderScheduler getInstance() {
+        if (instance == null) {
+            instance = new ReminderScheduler();
+        }
+        return instance;
+    }
+
+    // Scheduled appointments starting in [from, to), as appointment ID and clinic wall-clock start time
+    @FunctionalInterface
+    public interface AppointmentSource {
+        void forEachScheduled(LocalDateTime from, LocalDateTime to, BiConsumer<Long, LocalDateTime> action);
+    }
+
+    public void setSink(ReminderSink sink) {
+        this.sink = sink;
+    }
+
+    public void start(AppointmentSource source) {
+        synchronized (this) {
+            if (executor != null) {
+                return;
+            }
+            this.source = source;
+            this.loadedUntil = nowSecond();
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "reminder-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        extendHorizon();
+        executor.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+        executor.scheduleAtFixedRate(this::extendHorizon, LOAD_INTERVAL.toSeconds(), LOAD_INTERVAL.toSeconds(), TimeUnit.SECONDS);
+        logger.info("Reminder scheduler started with {} pending reminders.", pendingCount());
+    }
+
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    // Replace the reminders of an appointment, called by the DAO after every commit
+    public synchronized void appointmentChanged(Long appointmentId, LocalDateTime start, boolean scheduled) {
+        appointmentRemoved(appointmentId);
+        if (scheduled && start != null) {
+            // During a load the change also covers the stretch being loaded, since the load skips it
+            scheduleReminders(appointmentId, start, nowSecond(), Math.max(loadedUntil, loadingUntil));
+        }
+    }
+
+    public synchronized void appointmentRemoved(Long appointmentId) {
+        for (ReminderKind kind : KINDS) {
+            wheel.cancel(key(appointmentId, kind));
+        }
+        if (loadingUntil != 0) {
+            changedDuringLoad.add(appointmentId);
+        }
+    }
+
+    public synchronized int pendingCount() {
+        return wheel.size();
+    }
+
+    // Load the reminders that become due between the current horizon and now + HORIZON
+    private void extendHorizon() {
+        long now = nowSecond();
+        long until = now + HORIZON.toSeconds();
+        long from;
+        synchronized (this) {
+            from = Math.max(loadedUntil, now);
+            if (until <= from) {
+                return;
+            }
+            loadingUntil = until;
+        }
+        // Read without the lock, the DAO reports changes meanwhile and those appointments are skipped below
+        List<Long> appointmentIds = new ArrayList<>();
+        List<LocalDateTime> starts = new ArrayList<>();
+        try {
+            source.forEachScheduled(toLocal(from + MIN_LEAD.toSeconds()), toLocal(until + MAX_LEAD.toSeconds()),
+                    (appointmentId, start) -> {
+                        appointmentIds.add(appointmentId);
+                        starts.add(start);
+                    });
+        } catch (RuntimeException e) {
+            logger.error("Error loading appointments for reminders, retrying at the next load: {}", e.getMessage());
+            synchronized (this) {
+                loadingUntil = 0;
+                changedDuringLoad.clear();
+            }
+            return;
+        }
+        synchronized (this) {
+            int loaded = 0;
+            for (int i = 0; i < appointmentIds.size(); i++) {
+                if (!changedDuringLoad.contains(appointmentIds.get(i))) {
+                    loaded += scheduleReminders(appointmentIds.get(i), starts.get(i), from, until);
+                }
+            }
+            loadedUntil = until;
+            loadingUntil = 0;
+            changedDuringLoad.clear();
+            logger.info("Loaded {} reminders due before {}, {} pending.", loaded, toLocal(until), wheel.size());
+        }
+    }
+
+    // Schedule the reminders of an appointment that fall due in [from, until), returns how many were scheduled
+    private int scheduleReminders(Long appointmentId, LocalDateTime start, long from, long until) {
+        long startSecond = toEpochSecond(start);
+        int scheduled = 0;
+        for (ReminderKind kind : KINDS) {
+            long due = startSecond - kind.getLead().toSeconds();
+            if (due < from || due >= until) {
+                continue;
+            }
+            if (wheel.schedule(key(appointmentId, kind), due)) {
+                scheduled++;
+            } else {
+                logger.warn("Reminder wheel full with {} reminders, dropping {} reminder for appointment {}", MAX_PENDING, kind, appointmentId);
+            }
+        }
+        return scheduled;
+    }
+
+    private void tick() {
+        List<Reminder> due = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(nowSecond(), (key, deadline) -> {
+                ReminderKind kind = KINDS[(int) (key & 1)];
+                due.add(new Reminder(key >>> 1, kind, toLocal(deadline + kind.getLead().toSeconds())));
+            });
+        }
+        // Delivered outside the lock so a slow sink never holds up the DAO
+        for (Reminder reminder : due) {
+            try {
+                sink.send(reminder);
+            } catch (RuntimeException e) {
+                logger.error("Reminder sink failed for appointment {}: {}", reminder.appointmentId(), e.getMessage());
+            }
+        }
+    }
+
+    // Two timers per appointment, the low bit is the kind (ReminderKind has exactly two values)
+    private static long key(Long appointmentId, ReminderKind kind) {
+        return (appointmentId << 1) | kind.ordinal();
+    }
+
+    private static long nowSecond() {
+        return Instant.now().getEpochSecond();
+    }
+
+    private static long toEpochSecond(LocalDateTime local) {
+        return local.atZone(OpeningScheduleIndex.CLINIC_ZONE).toEpochSecond();
+    }
+
+    private static LocalDateTime toLocal(long epochSecond) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), OpeningScheduleIndex.CLINIC_ZONE);
+    }
+}
@@ -0,0 +1,10 @@
+package dat.reminder;
+
+/**
+ * Receives reminders when they are due. Called from the scheduler thread, so an implementation that
+ * talks to a slow service (mail, SMS) should hand the reminder off instead of blocking.
+ */
+public interface ReminderSink {
+
+    void send(Reminder reminder);
+}
@@ -0,0 +1,272 @@
+package dat.reminder;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel in the style of the classic Linux kernel timers. A root wheel of 256 ticks
+ * plus three wheels of 64 buckets cover 2^26 ticks; timers further away are parked in the last bucket and
+ * re-placed when it cascades. Scheduling and cancelling are O(1) and advancing costs O(1) per tick plus
+ * the timers that expire or cascade.
+ *
+ * Timers live in parallel primitive arrays linked into per-bucket lists, and keys are found through an
+ * open-addressing long -> int table, so a timer costs about 52 bytes and no objects. The arrays grow on
+ * demand up to a fixed capacity, after which schedule() refuses new timers.
+ *
+ * Keys must be positive. The wheel is not thread-safe, callers synchronise.
+ */
+public class TimingWheel {
+
+    private static final int ROOT_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVELS = 3;  // Wheels above the root
+    private static final int ROOT_SIZE = 1 << ROOT_BITS;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+    private static final int ROOT_MASK = ROOT_SIZE - 1;
+    private static final int LEVEL_MASK = LEVEL_SIZE - 1;
+    public static final long MAX_RANGE = 1L << (ROOT_BITS + LEVELS * LEVEL_BITS);
+    private static final int NIL = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    @FunctionalInterface
+    public interface ExpiredTimer {
+        void accept(long key, long deadline);
+    }
+
+    private final int maxCapacity;
+    private final int[] heads = new int[ROOT_SIZE + LEVELS * LEVEL_SIZE];
+    private long[] keys;
+    private long[] deadlines;
+    private int[] next;
+    private int[] prev;
+    private int[] bucketOf;
+    private int freeHead = NIL;
+    private int size;
+    private KeyIndex index;
+    private long currentTick;  // Next tick to be processed
+
+    public TimingWheel(int maxCapacity, long startTick) {
+        this.maxCapacity = maxCapacity;
+        this.currentTick = startTick;
+        Arrays.fill(heads, NIL);
+        int capacity = Math.min(INITIAL_CAPACITY, maxCapacity);
+        keys = new long[0];
+        deadlines = new long[0];
+        next = new int[0];
+        prev = new int[0];
+        bucketOf = new int[0];
+        grow(capacity);
+        index = new KeyIndex(capacity);
+    }
+
+    // Schedule or move the timer for a key, false if the wheel is full
+    public boolean schedule(long key, long deadline) {
+        int entry = index.get(key);
+        if (entry != NIL) {
+            unlink(entry);
+        } else {
+            if (freeHead == NIL) {
+                if (keys.length >= maxCapacity) {
+                    return false;
+                }
+                grow(Math.min(keys.length * 2, maxCapacity));
+                index = index.resized(keys.length);
+            }
+            entry = freeHead;
+            freeHead = next[entry];
+            keys[entry] = key;
+            index.put(key, entry);
+            size++;
+        }
+        deadlines[entry] = deadline;
+        link(entry);
+        return true;
+    }
+
+    public boolean cancel(long key) {
+        int entry = index.remove(key);
+        if (entry == NIL) {
+            return false;
+        }
+        unlink(entry);
+        release(entry);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    // Process every tick up to and including nowTick, handing each expired timer to the callback
+    public void advance(long nowTick, ExpiredTimer expired) {
+        while (currentTick <= nowTick) {
+            int rootIndex = (int) (currentTick & ROOT_MASK);
+            if (rootIndex == 0) {
+                // The root wheel wrapped, pull the next bucket of each higher wheel down as far as needed
+                for (int level = 0; level < LEVELS; level++) {
+                    int levelIndex = (int) ((currentTick >> (ROOT_BITS + level * LEVEL_BITS)) & LEVEL_MASK);
+                    cascade(ROOT_SIZE + level * LEVEL_SIZE + levelIndex);
+                    if (levelIndex != 0) {
+                        break;
+                    }
+                }
+            }
+            currentTick++;
+            int entry = heads[rootIndex];
+            heads[rootIndex] = NIL;
+            while (entry != NIL) {
+                int following = next[entry];
+                long key = keys[entry];
+                long deadline = deadlines[entry];
+                index.remove(key);
+                release(entry);
+                expired.accept(key, deadline);
+                entry = following;
+            }
+        }
+    }
+
+    private void cascade(int bucket) {
+        int entry = heads[bucket];
+        heads[bucket] = NIL;
+        while (entry != NIL) {
+            int following = next[entry];
+            link(entry);
+            entry = following;
+        }
+    }
+
+    private void link(int entry) {
+        long deadline = deadlines[entry];
+        long delta = deadline - currentTick;
+        int bucket;
+        if (delta < 0) {
+            bucket = (int) (currentTick & ROOT_MASK);  // Already due, fires on the next tick
+        } else if (delta < ROOT_SIZE) {
+            bucket = (int) (deadline & ROOT_MASK);
+        } else {
+            if (delta >= MAX_RANGE) {
+                delta = MAX_RANGE - 1;  // Parked in the last wheel, re-placed with the real deadline when it cascades
+                deadline = currentTick + delta;
+            }
+            int level = 0;
+            while (delta >= 1L << (ROOT_BITS + (level + 1) * LEVEL_BITS)) {
+                level++;
+            }
+            bucket = ROOT_SIZE + level * LEVEL_SIZE + (int) ((deadline >> (ROOT_BITS + level * LEVEL_BITS)) & LEVEL_MASK);
+        }
+        bucketOf[entry] = bucket;
+        prev[entry] = NIL;
+        next[entry] = heads[bucket];
+        if (heads[bucket] != NIL) {
+            prev[heads[bucket]] = entry;
+        }
+        heads[bucket] = entry;
+    }
+
+    private void unlink(int entry) {
+        if (prev[entry] != NIL) {
+            next[prev[entry]] = next[entry];
+        } else {
+            heads[bucketOf[entry]] = next[entry];
+        }
+        if (next[entry] != NIL) {
+            prev[next[entry]] = prev[entry];
+        }
+    }
+
+    private void release(int entry) {
+        next[entry] = freeHead;
+        freeHead = entry;
+        size--;
+    }
+
+    private void grow(int capacity) {
+        int old = keys.length;
+        keys = Arrays.copyOf(keys, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        next = Arrays.copyOf(next, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        bucketOf = Arrays.copyOf(bucketOf, capacity);
+        for (int entry = capacity - 1; entry >= old; entry--) {
+            next[entry] = freeHead;
+            freeHead = entry;
+        }
+    }
+
+    // Open addressing with linear probing and backward-shift deletion, 0 marks an empty slot
+    private static final class KeyIndex {
+
+        private final long[] keys;
+        private final int[] values;
+        private final int mask;
+
+        KeyIndex(int capacity) {
+            int tableSize = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;  // Load factor at most 0.5
+            keys = new long[tableSize];
+            values = new int[tableSize];
+            mask = tableSize - 1;
+        }
+
+        KeyIndex resized(int capacity) {
+            KeyIndex resized = new KeyIndex(capacity);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    resized.put(keys[i], values[i]);
+                }
+            }
+            return resized;
+        }
+
+        int get(long key) {
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                if (keys[i] == 0) {
+                    return NIL;
+                }
+            }
+        }
+
+        void put(long key, int value) {
+            int i = slot(key);
+            while (keys[i] != 0 && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        int remove(long key) {
+            int i = slot(key);
+            while (keys[i] != key) {
+                if (keys[i] == 0) {
+                    return NIL;
+                }
+                i = (i + 1) & mask;
+            }
+            int value = values[i];
+            // Shift later entries of the probe run back so lookups never stop at the hole
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = slot(keys[j]);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = 0;
+            return value;
+        }
+
+        private int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+}
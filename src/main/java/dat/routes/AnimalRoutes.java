@@ -15,7 +15,7 @@ public class AnimalRoutes {
 
     public EndpointGroup getRoutes() {
         return () -> {
-            // GET /animals - Get all animals
+            // GET /animals?after=0&limit=20 - List animals, paged by ID (Accept: application/x-ndjson streams all of them)
             get(animalController::readAll, Role.ANYONE);
 
             // GET /animals/{id} - Get animal by ID
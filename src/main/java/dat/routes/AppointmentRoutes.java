@@ -0,0 +1,62 @@
+package dat.routes;
+
+import dat.controller.impl.AppointmentController;
+import dat.security.enums.Role;
+import io.javalin.apibuilder.EndpointGroup;
+import static io.javalin.apibuilder.ApiBuilder.*;
+
+public class AppointmentRoutes {
+
+    private final AppointmentController appointmentController;
+
+    public AppointmentRoutes() {
+        this.appointmentController = new AppointmentController();
+    }
+
+    public EndpointGroup getRoutes() {
+        return () -> {
+            // GET /appointments?after=0&limit=20 - List appointments, paged by ID (Accept: application/x-ndjson streams all of them)
+            get(appointmentController::readAll, Role.ANYONE);
+
+            // GET /appointments/free-slots?specialization=&cityId=&from=&to=&duration=30 - Earliest free slot per veterinarian
+            get("/free-slots", appointmentController::getFreeSlots, Role.ANYONE);
+
+            // GET /appointments/stats?clinicId=&veterinarianId=&day=2024-10-10 - Appointment counts by status
+            get("/stats", appointmentController::getStats, Role.ANYONE);
+
+            // Calendars: appointments starting in [from, to), e.g. ?from=2024-10-14T00:00&to=2024-10-21T00:00
+            // GET /appointments/clinic/{clinicId} - Calendar of a clinic
+            get("/clinic/{clinicId}", appointmentController::getClinicCalendar, Role.ANYONE);
+
+            // GET /appointments/veterinarian/{veterinarianId} - Calendar of a veterinarian
+            get("/veterinarian/{veterinarianId}", appointmentController::getVeterinarianCalendar, Role.ANYONE);
+
+            // GET /appointments/client/{clientId} - Appointments of a client
+            get("/client/{clientId}", appointmentController::getClientCalendar, Role.ANYONE);
+
+            // GET /appointments/animal/{animalId} - Appointments of an animal
+            get("/animal/{animalId}", appointmentController::getAnimalCalendar, Role.ANYONE);
+
+            // GET /appointments/{id} - Get appointment by ID
+            get("{id}", appointmentController::read, Role.ANYONE);
+
+            // POST /appointments - Create a new appointment
+            post(appointmentController::create, Role.ADMIN, Role.VET);
+
+            // POST /appointments/bulk?chunkSize=500 - Import a JSON array or NDJSON stream of appointments
+            post("/bulk", appointmentController::createAll, Role.ADMIN);
+
+            // PUT /appointments/status?clinicId=&veterinarianId=&day=2024-10-10 - Change the status of matching appointments
+            put("/status", appointmentController::updateStatuses, Role.ADMIN);
+
+            // PUT /appointments/{id}/status - Change the status of one appointment
+            put("{id}/status", appointmentController::updateStatus, Role.ADMIN, Role.VET);
+
+            // PUT /appointments/{id} - Update an existing appointment
+            put("{id}", appointmentController::update, Role.ADMIN, Role.VET);
+
+            // DELETE /appointments/{id} - Delete an appointment by ID
+            delete("{id}", appointmentController::delete, Role.ADMIN, Role.VET);
+        };
+    }
+}
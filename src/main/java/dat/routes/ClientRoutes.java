@@ -15,7 +15,7 @@ public class ClientRoutes {
 
     public EndpointGroup getRoutes() {
         return () -> {
-            // GET /clients - Get all clients
+            // GET /clients?after=0&limit=20 - List clients, paged by ID (Accept: application/x-ndjson streams all of them)
             get(clientController::readAll, Role.ANYONE);
 
             // GET /clients/{id} - Get client by ID
@@ -15,9 +15,25 @@ public class ClinicRoutes {
 
     public EndpointGroup getRoutes() {
         return () -> {
-            // GET /clinics - List all clinics
+            // GET /clinics?after=0&limit=20 - List clinics, paged by ID (Accept: application/x-ndjson streams all of them)
             get(clinicController::readAll, Role.ANYONE);
 
+            // Static paths are registered before {id} so they are not captured as an ID
+            // GET /clinics/nearest?lat=55.67&lon=12.56&k=5 - Find the clinics closest to a location
+            get("/nearest", clinicController::getNearestClinics, Role.ANYONE);
+
+            // GET /clinics/emergency?lat=55.67&lon=12.56&limit=5 - Open emergency clinics with an available veterinarian
+            get("/emergency", clinicController::getEmergencyClinics, Role.ANYONE);
+
+            // GET /clinics/open-now - List clinics that are open right now, a page at a time
+            get("/open-now", clinicController::getOpenNow, Role.ANYONE);
+
+            // GET /clinics/search-by-city?cityId=1&after=0&limit=20 - Search clinics by city, paged by clinic ID
+            get("/search-by-city", clinicController::getClinicsByCity, Role.ANYONE);
+
+            // GET /clinics/search-by-name?name=ABC - Search clinics by name
+            get("/search-by-name", clinicController::getClinicsByName, Role.ANYONE);
+
             // GET /clinics/{id} - Get clinic by ID
             get("{id}", clinicController::read, Role.ANYONE);
 
@@ -36,11 +52,11 @@ public class ClinicRoutes {
             // POST /clinics/{id}/opening-hours - Add or update opening hours for a clinic
             post("{id}/opening-hours", clinicController::addOpeningHours, Role.ANYONE);
 
-            // GET /clinics/search-by-city?cityId=1 - Search clinics by city
-            get("/search-by-city", clinicController::getClinicsByCity, Role.ANYONE);
+            // GET /clinics/{id}/next-opening - Check whether a clinic is open and when it opens next
+            get("{id}/next-opening", clinicController::getNextOpening, Role.ANYONE);
 
-            // GET /clinics/search-by-name?name=ABC - Search clinics by name
-            get("/search-by-name", clinicController::getClinicsByName, Role.ANYONE);
+            // GET /clinics/{id}/appointment-stats?day=2024-10-10 - Appointment counts of a clinic by status
+            get("{id}/appointment-stats", clinicController::getAppointmentStats, Role.ANYONE);
 
             // POST /clinics/{clinicId}/veterinarians/{vetId} - Add a veterinarian to a clinic
             post("{clinicId}/veterinarians/{vetId}", clinicController::addVeterinarianToClinic, Role.ANYONE);
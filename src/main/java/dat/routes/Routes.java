@@ -9,11 +9,15 @@ public class Routes {
     private final ClinicRoutes clinicRoutes;
     private final AnimalRoutes animalRoutes;
     private final ClientRoutes clientRoutes;
+    private final VeterinarianRoutes veterinarianRoutes;
+    private final AppointmentRoutes appointmentRoutes;
 
     public Routes() {
         clinicRoutes = new ClinicRoutes();
         animalRoutes = new AnimalRoutes();
         clientRoutes = new ClientRoutes();
+        veterinarianRoutes = new VeterinarianRoutes();
+        appointmentRoutes = new AppointmentRoutes();
     }
 
     public EndpointGroup getRoutes() {
@@ -29,6 +33,8 @@ public class Routes {
             path("/clinics", clinicRoutes.getRoutes());
             path("/animals", animalRoutes.getRoutes());
             path("/clients", clientRoutes.getRoutes());
+            path("/veterinarians", veterinarianRoutes.getRoutes());
+            path("/appointments", appointmentRoutes.getRoutes());
         };
 
     }
@@ -0,0 +1,34 @@
+package dat.routes;
+
+import dat.controller.impl.VeterinarianController;
+import dat.security.enums.Role;
+import io.javalin.apibuilder.EndpointGroup;
+import static io.javalin.apibuilder.ApiBuilder.*;
+
+public class VeterinarianRoutes {
+
+    private final VeterinarianController veterinarianController;
+
+    public VeterinarianRoutes() {
+        this.veterinarianController = new VeterinarianController();
+    }
+
+    public EndpointGroup getRoutes() {
+        return () -> {
+            // GET /veterinarians?after=0&limit=20 - List veterinarians, paged by ID (Accept: application/x-ndjson streams all of them)
+            get(veterinarianController::readAll, Role.ANYONE);
+
+            // GET /veterinarians/{id} - Get veterinarian by ID
+            get("{id}", veterinarianController::read, Role.ANYONE);
+
+            // POST /veterinarians - Create a new veterinarian
+            post(veterinarianController::create, Role.ADMIN);
+
+            // PUT /veterinarians/{id} - Update an existing veterinarian
+            put("{id}", veterinarianController::update, Role.ADMIN);
+
+            // DELETE /veterinarians/{id} - Delete a veterinarian by ID
+            delete("{id}", veterinarianController::delete, Role.ADMIN);
+        };
+    }
+}
@@ -1,11 +1,15 @@
 package dat.security.controllers;
 
 import dat.security.enums.Role;
-import dk.bugelhartmann.UserDTO;
+import dat.security.token.VerifiedUser;
 import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
 import io.javalin.http.UnauthorizedResponse;
 import io.javalin.security.RouteRole;
 
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -17,6 +21,27 @@ public class AccessController implements IAccessController {
 
     SecurityController securityController = SecurityController.getInstance();
 
+    // Role bitmask of each route by method and endpoint path, compiled once as the routes are added at startup.
+    // Copy on write, so a request looks its route up without locks or allocation.
+    private volatile Map<HandlerType, Map<String, Long>> routeMasks = new EnumMap<>(HandlerType.class);
+
+    /**
+     * Compiles the role bitmask of a route. Called for every route as it is added, see ApplicationConfig.
+     * @param method
+     * @param path the endpoint path as ctx.endpointHandlerPath() reports it, without the context path
+     * @param roles
+     */
+    public synchronized void addRoute(HandlerType method, String path, Set<RouteRole> roles) {
+        if (!method.isHttpMethod()) {
+            return;
+        }
+        Map<HandlerType, Map<String, Long>> compiled = new EnumMap<>(routeMasks);
+        Map<String, Long> paths = new HashMap<>(compiled.getOrDefault(method, Map.of()));
+        paths.put(path, Role.maskOf(roles));
+        compiled.put(method, paths);
+        routeMasks = compiled;
+    }
+
     /**
      * This method checks if the user has the necessary roles to access the route.
      * @param ctx
@@ -24,7 +49,9 @@ public class AccessController implements IAccessController {
     public void accessHandler(Context ctx) {
 
         // If no roles are specified on the endpoint, then anyone can access the route
-        if (ctx.routeRoles().isEmpty() || ctx.routeRoles().contains(Role.ANYONE)){
+        Set<RouteRole> allowedRoles = ctx.routeRoles(); // roles allowed for the current route
+        long allowedRoleMask = routeMask(ctx, allowedRoles);
+        if (allowedRoles.isEmpty() || (allowedRoleMask & Role.ANYONE.bit()) != 0) {
            return;
         }
 
@@ -38,10 +65,15 @@ public class AccessController implements IAccessController {
         }
 
         // Check if the user has the necessary roles to access the route
-        UserDTO user = ctx.attribute("user");
-        Set<RouteRole> allowedRoles = ctx.routeRoles(); // roles allowed for the current route
-        if (!securityController.authorize(user, allowedRoles)) {
-            throw new UnauthorizedResponse("Unauthorized with roles: " + user.getRoles() + ". Needed roles are: " + allowedRoles);
+        VerifiedUser user = ctx.attribute(SecurityController.VERIFIED_USER_ATTRIBUTE);
+        if (!securityController.authorize(user, allowedRoleMask)) {
+            throw new UnauthorizedResponse("Unauthorized with roles: " + user.user().getRoles() + ". Needed roles are: " + allowedRoles);
         }
     }
+
+    private long routeMask(Context ctx, Set<RouteRole> allowedRoles) {
+        Map<String, Long> paths = routeMasks.get(ctx.method());
+        Long mask = paths != null ? paths.get(ctx.endpointHandlerPath()) : null;
+        return mask != null ? mask : Role.maskOf(allowedRoles);  // Only for a route the handlerAdded event did not report
+    }
 }
@@ -0,0 +1,71 @@
+package dat.security.controllers;
+
+import dat.config.AppSettings;
+import dat.config.RateLimit;
+import dat.config.Settings;
+import dat.exception.ApiException;
+import dat.security.enums.Role;
+import dat.util.RateLimiter;
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+import io.javalin.security.RouteRole;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiting in front of the AccessController. Every client IP has one bucket for all its requests and
+ * one per route, the latter sized by the most generous role the route allows. The BCrypt routes
+ * /auth/login and /auth/register get their own, much smaller limit. Limits come from the Settings and
+ * follow a reload, a rejected request gets 429 with Retry-After.
+ */
+public class RateLimitController {
+
+    private static final long EVICTION_INTERVAL_SECONDS = 60;
+
+    private final RateLimiter limiter = new RateLimiter();
+
+    private record RouteKey(String ip, String route) {}
+
+    public RateLimitController() {
+        limiter.startEviction(EVICTION_INTERVAL_SECONDS);
+    }
+
+    public void rateLimitHandler(Context ctx) {
+        AppSettings settings = Settings.get();
+        long now = System.nanoTime();
+        String ip = ctx.ip();
+        check(ctx, ip, settings.getIpRateLimit(), now);
+
+        String route = ctx.method() + " " + ctx.endpointHandlerPath();
+        check(ctx, new RouteKey(ip, route), routeLimit(settings, route, ctx.routeRoles()), now);
+    }
+
+    private void check(Context ctx, Object key, RateLimit limit, long now) {
+        if (limit.isOff()) {
+            return;
+        }
+        long waitNanos = limiter.tryAcquire(key, limit.intervalNanos(), limit.burst(), now);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);  // Rounded up
+            ctx.header("Retry-After", String.valueOf(retryAfterSeconds));
+            throw new ApiException(HttpStatus.TOO_MANY_REQUESTS.getCode(), "Too many requests, try again later");
+        }
+    }
+
+    private static RateLimit routeLimit(AppSettings settings, String route, Set<RouteRole> roles) {
+        if (route.endsWith("/auth/login") || route.endsWith("/auth/register")) {
+            return settings.getAuthRateLimit();
+        }
+        RateLimit limit = null;
+        for (RouteRole role : roles) {
+            if (role instanceof Role known) {
+                RateLimit candidate = settings.getRateLimit(known);
+                if (limit == null || candidate.isOff() || (!limit.isOff() && candidate.perSecond() > limit.perSecond())) {
+                    limit = candidate;
+                }
+            }
+        }
+        return limit != null ? limit : settings.getRateLimit(Role.ANYONE);
+    }
+}
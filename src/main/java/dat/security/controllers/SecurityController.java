@@ -3,14 +3,19 @@ package dat.security.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.nimbusds.jose.JOSEException;
-import dat.util.Utils;
+import com.nimbusds.jwt.SignedJWT;
 import dat.config.HibernateConfig;
+import dat.config.Settings;
 import dat.security.daos.ISecurityDAO;
 import dat.security.daos.SecurityDAO;
 import dat.security.entities.User;
 import dat.security.exceptions.ApiException;
 import dat.security.exceptions.NotAuthorizedException;
 import dat.security.exceptions.ValidationException;
+import dat.security.enums.Role;
+import dat.security.token.TokenKeys;
+import dat.security.token.VerifiedTokenCache;
+import dat.security.token.VerifiedUser;
 import dk.bugelhartmann.ITokenSecurity;
 import dk.bugelhartmann.TokenSecurity;
 import dk.bugelhartmann.TokenVerificationException;
@@ -27,8 +32,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.text.ParseException;
+import java.util.Date;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Purpose: To handle security in the API
@@ -37,11 +42,20 @@ import java.util.stream.Collectors;
 public class SecurityController implements ISecurityController {
     ObjectMapper objectMapper = new ObjectMapper();
     ITokenSecurity tokenSecurity = new TokenSecurity();
+    private final TokenKeys tokenKeys;
+    final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(() -> Settings.get().getTokenCacheSize());
     private static ISecurityDAO securityDAO;
     private static SecurityController instance;
     private static Logger logger = LoggerFactory.getLogger(SecurityController.class);
+    public static final String VERIFIED_USER_ATTRIBUTE = "verifiedUser";  // The VerifiedUser set by authenticate()
 
-    private SecurityController() { }
+    private SecurityController() {
+        this(TokenKeys.load());
+    }
+
+    SecurityController(TokenKeys tokenKeys) {
+        this.tokenKeys = tokenKeys;
+    }
 
     public static SecurityController getInstance() { // Singleton because we don't want multiple instances of the same class
         if (instance == null) {
@@ -66,7 +80,7 @@ public class SecurityController implements ISecurityController {
 
             } catch (EntityNotFoundException | ValidationException e) {
                 ctx.status(401);
-                System.out.println(e.getMessage());
+                logger.info("Login failed: {}", e.getMessage());
                 ctx.json(returnObject.put("msg", e.getMessage()));
             }
         };
@@ -112,13 +126,14 @@ public class SecurityController implements ISecurityController {
             }
 
             String token = headerParts[1];
-            UserDTO verifiedTokenUser = verifyToken(token);
+            VerifiedUser verifiedTokenUser = verify(token);
 
             if (verifiedTokenUser == null) {
                 throw new UnauthorizedResponse("Invalid User or Token");
             }
-            logger.info("User verified: " + verifiedTokenUser);
-            ctx.attribute("user", verifiedTokenUser);
+            logger.debug("User verified: {}", verifiedTokenUser.user());
+            ctx.attribute("user", verifiedTokenUser.user());
+            ctx.attribute(VERIFIED_USER_ATTRIBUTE, verifiedTokenUser);
         };
     }
 
@@ -128,56 +143,61 @@ public class SecurityController implements ISecurityController {
         if (user == null) {
             throw new UnauthorizedResponse("You need to log in, dude!");
         }
-        Set<String> roleNames = allowedRoles.stream()
-                   .map(RouteRole::toString)  // Convert RouteRoles to  Set of Strings
-                   .collect(Collectors.toSet());
-        return user.getRoles().stream()
-                   .map(String::toUpperCase)
-                   .anyMatch(roleNames::contains);
+        return (roleMaskOf(user) & Role.maskOf(allowedRoles)) != 0;
+    }
+
+    // The per-request check, both sides are Role bitmasks computed once per token and once per route
+    public boolean authorize(VerifiedUser user, long allowedRoleMask) {
+        if (user == null) {
+            throw new UnauthorizedResponse("You need to log in, dude!");
         }
+        return (user.roleMask() & allowedRoleMask) != 0;
+    }
 
     @Override
     public String createToken(UserDTO user) {
         try {
-            String ISSUER;
-            String TOKEN_EXPIRE_TIME;
-            String SECRET_KEY;
-
-            if (System.getenv("DEPLOYED") != null) {
-                ISSUER = System.getenv("ISSUER");
-                TOKEN_EXPIRE_TIME = System.getenv("TOKEN_EXPIRE_TIME");
-                SECRET_KEY = System.getenv("SECRET_KEY");
-            } else {
-                ISSUER = Utils.getPropertyValue("ISSUER", "config.properties");
-                TOKEN_EXPIRE_TIME = Utils.getPropertyValue("TOKEN_EXPIRE_TIME", "config.properties");
-                SECRET_KEY = Utils.getPropertyValue("SECRET_KEY", "config.properties");
-            }
-            return tokenSecurity.createToken(user, ISSUER, TOKEN_EXPIRE_TIME, SECRET_KEY);
+            return tokenSecurity.createToken(user, tokenKeys.issuer(), tokenKeys.expireTime(), tokenKeys.secretKey());
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("Could not create token for {}", user.getUsername(), e);
             throw new ApiException(500, "Could not create token");
         }
     }
 
     @Override
     public UserDTO verifyToken(String token) {
-        boolean IS_DEPLOYED = (System.getenv("DEPLOYED") != null);
-        String SECRET = IS_DEPLOYED ? System.getenv("SECRET_KEY") : Utils.getPropertyValue("SECRET_KEY", "config.properties");
+        return verify(token).user();
+    }
 
+    public VerifiedUser verify(String token) {
+        // A token seen before skips parsing and the signature check until it expires
+        VerifiedUser cachedUser = verifiedTokens.get(token);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
         try {
-            if (tokenSecurity.tokenIsValid(token, SECRET) && tokenSecurity.tokenNotExpired(token)) {
-                return tokenSecurity.getUserWithRolesFromToken(token);
-            } else {
-                throw new NotAuthorizedException(403, "Token is not valid");
+            if (!tokenSecurity.tokenIsValid(token, tokenKeys.secretKey())) {
+                throw new NotAuthorizedException(401, "Token signature is not valid");
             }
-        } catch (ParseException | NotAuthorizedException e) {
-            e.printStackTrace();
+            // The expiry is read from this one parse, both to reject an expired token and to bound its cache entry
+            Date expiresAt = SignedJWT.parse(token).getJWTClaimsSet().getExpirationTime();
+            if (expiresAt == null || !expiresAt.after(new Date())) {
+                throw new NotAuthorizedException(401, "Token has expired");
+            }
+            UserDTO userDTO = tokenSecurity.getUserWithRolesFromToken(token);
+            VerifiedUser user = new VerifiedUser(userDTO, roleMaskOf(userDTO));
+            verifiedTokens.put(token, user, expiresAt.getTime());
+            return user;
+        } catch (ParseException | NotAuthorizedException | TokenVerificationException e) {
+            logger.warn("Could not verify token: {}", e.getMessage());
             throw new ApiException(HttpStatus.UNAUTHORIZED.getCode(), "Unauthorized. Could not verify token");
-        } catch (TokenVerificationException e) {
-            throw new RuntimeException(e);
         }
     }
 
+    private static long roleMaskOf(UserDTO user) {
+        return user.getRoles() != null ? Role.maskOfNames(user.getRoles()) : 0;
+    }
+
     public @NotNull Handler addRole() {
         return (ctx) -> {
             ObjectNode returnObject = objectMapper.createObjectNode();
@@ -198,4 +218,4 @@ public class SecurityController implements ISecurityController {
     public void healthCheck(@NotNull Context ctx) {
         ctx.status(200).json("{\"msg\": \"API is up and running\"}");
     }
-}
\ No newline at end of file
+}
@@ -5,11 +5,14 @@ import dat.security.entities.Role;
 import dat.security.entities.User;
 import dat.security.exceptions.ApiException;
 import dat.security.exceptions.ValidationException;
+import dat.security.password.PasswordHasher;
 import dk.bugelhartmann.UserDTO;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -21,6 +24,7 @@ import java.util.stream.Collectors;
  */
 public class SecurityDAO implements ISecurityDAO {
 
+    private static final Logger logger = LoggerFactory.getLogger(SecurityDAO.class);
     private static ISecurityDAO instance;
     private static EntityManagerFactory emf;
 
@@ -41,10 +45,28 @@ public class SecurityDAO implements ISecurityDAO {
             user.getRoles().size(); // force roles to be fetched from db
             if (!user.verifyPassword(password))
                 throw new ValidationException("Wrong password");
+            if (user.passwordNeedsRehash())
+                rehashPassword(em, user, password);
             return new UserDTO(user.getUsername(), user.getRoles().stream().map(r -> r.getRoleName()).collect(Collectors.toSet()));
         }
     }
 
+    // Move a stored hash to the configured BCrypt cost while the plain password is at hand. Best effort, the login succeeds anyway.
+    private void rehashPassword(EntityManager em, User user, String password) {
+        try {
+            String rehashed = PasswordHasher.getInstance().hash(password);
+            em.getTransaction().begin();
+            user.setPassword(rehashed);
+            em.getTransaction().commit();
+            logger.info("Rehashed the password of user {} with the configured cost.", user.getUsername());
+        } catch (RuntimeException e) {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            logger.warn("Could not rehash the password of user {}: {}", user.getUsername(), e.getMessage());
+        }
+    }
+
     @Override
     public User createUser(String username, String password) {
         try (EntityManager em = getEntityManager()) {
@@ -61,7 +83,9 @@ public class SecurityDAO implements ISecurityDAO {
             em.persist(userEntity);
             em.getTransaction().commit();
             return userEntity;
-        }catch (Exception e){
+        } catch (dat.exception.ApiException e) {
+            throw e;  // The password hasher is saturated (503)
+        } catch (Exception e){
             e.printStackTrace();
             throw new ApiException(400, e.getMessage());
         }
@@ -2,7 +2,7 @@ package dat.security.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.mindrot.jbcrypt.BCrypt;
+import dat.security.password.PasswordHasher;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -49,13 +49,18 @@ public class User implements Serializable, ISecurityUser {
         return rolesAsStrings;
     }
 
+    // BCrypt runs on the PasswordHasher pool, which answers 503 when it is saturated
     public boolean verifyPassword(String pw) {
-        return BCrypt.checkpw(pw, this.password);
+        return PasswordHasher.getInstance().verify(pw, this.password);
+    }
+
+    public boolean passwordNeedsRehash() {
+        return PasswordHasher.getInstance().needsRehash(this.password);
     }
 
     public User(String userName, String userPass) {
         this.username = userName;
-        this.password = BCrypt.hashpw(userPass, BCrypt.gensalt());
+        this.password = PasswordHasher.getInstance().hash(userPass);
     }
 
     public User(String userName, Set<Role> roleEntityList) {
@@ -2,6 +2,40 @@ package dat.security.enums;
 
 import io.javalin.security.RouteRole;
 
+import java.util.Collection;
+import java.util.Locale;
+
 public enum Role implements RouteRole {
     ANYONE, USER, ADMIN, VET;
+
+    private static final Role[] VALUES = values();
+
+    // One bit per role, so a set of roles is a long and "has any of these roles" is a single AND
+    public long bit() {
+        return 1L << ordinal();
+    }
+
+    public static long maskOf(Collection<? extends RouteRole> roles) {
+        long mask = 0;
+        for (RouteRole role : roles) {
+            if (role instanceof Role known) {
+                mask |= known.bit();
+            }
+        }
+        return mask;
+    }
+
+    // Role names as stored on users, e.g. "user" and "admin". Names without a Role are ignored.
+    public static long maskOfNames(Collection<String> names) {
+        long mask = 0;
+        for (String name : names) {
+            String upper = name.toUpperCase(Locale.ROOT);
+            for (Role role : VALUES) {
+                if (role.name().equals(upper)) {
+                    mask |= role.bit();
+                }
+            }
+        }
+        return mask;
+    }
 }
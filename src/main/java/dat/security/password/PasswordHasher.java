@@ -0,0 +1,111 @@
+package dat.security.password;
+
+import dat.config.AppSettings;
+import dat.config.Settings;
+import dat.exception.ApiException;
+import org.mindrot.jbcrypt.BCrypt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a small pool of its own instead of on the request threads, so a burst of logins can
+ * only use BCRYPT_THREADS cores and never starves the other routes. At most BCRYPT_QUEUE_SIZE hashes
+ * wait for a thread, beyond that callers get a 503 straight away rather than piling up.
+ *
+ * New hashes use BCRYPT_COST, and needsRehash tells whether a stored hash was made with another cost.
+ */
+public class PasswordHasher {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHasher.class);
+
+    private static PasswordHasher instance;
+
+    private final ThreadPoolExecutor executor;
+
+    private PasswordHasher() {
+        AppSettings settings = Settings.get();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(settings.getBcryptThreads(), settings.getBcryptThreads(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(settings.getBcryptQueueSize()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized PasswordHasher getInstance() {
+        if (instance == null) {
+            instance = new PasswordHasher();
+        }
+        return instance;
+    }
+
+    public String hash(String password) {
+        int cost = Settings.get().getBcryptCost();
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    public boolean verify(String password, String hash) {
+        return run(() -> BCrypt.checkpw(password, hash));
+    }
+
+    // True when the hash was made with another cost than the configured one
+    public boolean needsRehash(String hash) {
+        return costOf(hash) != Settings.get().getBcryptCost();
+    }
+
+    private <T> T run(Callable<T> task) {
+        resizeIfChanged();
+        try {
+            return executor.submit(task).get();
+        } catch (RejectedExecutionException e) {
+            logger.warn("Password hashing queue is full, rejecting the request.");
+            throw new ApiException(503, "Too many logins in progress, try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Interrupted while checking the password");
+        } catch (ExecutionException e) {
+            logger.error("Password hashing failed: {}", e.getCause().getMessage());
+            throw new ApiException(500, "Could not check the password");
+        }
+    }
+
+    // BCRYPT_THREADS follows a settings reload
+    private void resizeIfChanged() {
+        int threads = Settings.get().getBcryptThreads();
+        if (executor.getMaximumPoolSize() != threads) {
+            synchronized (executor) {
+                if (threads > executor.getMaximumPoolSize()) {
+                    executor.setMaximumPoolSize(threads);
+                    executor.setCorePoolSize(threads);
+                } else if (threads < executor.getMaximumPoolSize()) {
+                    executor.setCorePoolSize(threads);
+                    executor.setMaximumPoolSize(threads);
+                }
+            }
+        }
+    }
+
+    // The cost is the two digits after the version in "$2a$10$..."
+    static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$' || hash.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(hash.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
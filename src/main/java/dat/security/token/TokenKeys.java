@@ -0,0 +1,22 @@
+package dat.security.token;
+
+import dat.config.AppSettings;
+import dat.config.Settings;
+
+/**
+ * Token issuer, lifetime and HMAC secret, taken from the Settings once at startup instead of on every
+ * token that is created or checked.
+ */
+public record TokenKeys(String issuer, String expireTime, String secretKey) {
+
+    public static TokenKeys load() {
+        AppSettings settings = Settings.get();
+        return new TokenKeys(settings.getIssuer(), settings.getTokenExpireTime(), settings.getSecretKey());
+    }
+
+    // Keeps the secret out of logs
+    @Override
+    public String toString() {
+        return "TokenKeys[issuer=" + issuer + ", expireTime=" + expireTime + "]";
+    }
+}
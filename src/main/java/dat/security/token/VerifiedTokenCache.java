@@ -0,0 +1,89 @@
+package dat.security.token;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Users of tokens whose signature has already been checked, so a client repeating its bearer token skips
+ * the parsing and HMAC work. Entries are keyed by a SHA-256 hash of the token, the tokens themselves are
+ * never kept, and are dropped once the token expires. When the cache is full, expired entries are swept
+ * and, if that is not enough, arbitrary entries are evicted; a token that is evicted is simply verified
+ * again on its next use.
+ */
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final IntSupplier maxEntries;  // Read on every insert, so a settings reload resizes the cache
+    private final Map<TokenHash, Entry> entries = new ConcurrentHashMap<>();
+
+    // The first 128 bits of the hash, plenty to tell tokens apart
+    private record TokenHash(long high, long low) {}
+
+    private record Entry(VerifiedUser user, long expiresAtMillis) {}
+
+    public VerifiedTokenCache(IntSupplier maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    // The user of a verified, unexpired token, or null when the token has to be verified
+    public VerifiedUser get(String token) {
+        TokenHash key = hash(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.user();
+    }
+
+    public void put(String token, VerifiedUser user, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (expiresAtMillis <= now) {
+            return;
+        }
+        int limit = maxEntries.getAsInt();
+        if (entries.size() >= limit) {
+            evict(now, limit);
+        }
+        entries.put(hash(token), new Entry(user, expiresAtMillis));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict(long now, int limit) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        // Still full of live tokens, make room for a tenth of the cache
+        Iterator<TokenHash> keys = entries.keySet().iterator();
+        for (int excess = entries.size() - limit * 9 / 10; excess > 0 && keys.hasNext(); excess--) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static TokenHash hash(String token) {
+        ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+        return new TokenHash(digest.getLong(), digest.getLong());
+    }
+}
@@ -0,0 +1,6 @@
+package dat.security.token;
+
+import dk.bugelhartmann.UserDTO;
+
+// The result of verifying a token: the user and their roles as a Role bitmask, computed once per token
+public record VerifiedUser(UserDTO user, long roleMask) {}
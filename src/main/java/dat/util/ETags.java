@@ -0,0 +1,47 @@
+package dat.util;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+
+/**
+ * Conditional GET support based on entity @Version columns. The ETag is the version number, which is
+ * enough to identify a representation because every resource URL already names the entity and its ID.
+ */
+public class ETags {
+
+    private ETags() {}
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // Sets the ETag header and answers 304 Not Modified when it matches If-None-Match.
+    // Returns true when the response is complete and the handler should stop.
+    public static boolean notModified(Context ctx, long version) {
+        String etag = of(version);
+        ctx.header(Header.ETAG, etag);
+        if (matches(ctx.header(Header.IF_NONE_MATCH), etag)) {
+            ctx.status(HttpStatus.NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    // If-None-Match uses weak comparison, so W/ prefixes are ignored and "*" matches any current version
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
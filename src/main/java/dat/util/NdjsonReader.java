@@ -0,0 +1,77 @@
+package dat.util;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a newline-delimited JSON request body (one document per line) lazily, so an import is consumed
+ * as it arrives instead of being held in memory. Blank lines are skipped. Rows are parsed with Javalin's
+ * JSON mapper, giving the same representation as ctx.bodyAsClass().
+ */
+public class NdjsonReader<T> implements Iterator<T> {
+
+    private final JsonMapper jsonMapper;
+    private final BufferedReader in;
+    private final Class<T> type;
+    private String nextLine;
+    private long lineNumber;
+
+    private NdjsonReader(Context ctx, Class<T> type) {
+        this.jsonMapper = ctx.jsonMapper();
+        this.in = new BufferedReader(new InputStreamReader(ctx.bodyInputStream(), StandardCharsets.UTF_8));
+        this.type = type;
+    }
+
+    // True when the client sent NDJSON instead of a JSON array
+    public static boolean isSent(Context ctx) {
+        String contentType = ctx.header(Header.CONTENT_TYPE);
+        return contentType != null && contentType.contains(NdjsonWriter.CONTENT_TYPE);
+    }
+
+    public static <T> NdjsonReader<T> open(Context ctx, Class<T> type) {
+        return new NdjsonReader<>(ctx, type);
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (nextLine == null) {
+                String line = in.readLine();
+                if (line == null) {
+                    return false;
+                }
+                lineNumber++;
+                if (!line.isBlank()) {
+                    nextLine = line;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Client stopped sending the NDJSON stream", e);
+        }
+    }
+
+    // Throws an IllegalArgumentException naming the line when it is not a valid document, the next row can still be read
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = null;
+        try {
+            return jsonMapper.fromJsonString(line, type);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid JSON on line " + lineNumber);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package dat.util;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import io.javalin.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Writes rows to the response as newline-delimited JSON (one document per line) as they are produced,
+ * so a full export never has to be held in memory. Rows are serialised with Javalin's JSON mapper,
+ * giving the same representation as ctx.json().
+ */
+public class NdjsonWriter<T> implements Consumer<T>, AutoCloseable {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private final JsonMapper jsonMapper;
+    private final OutputStream out;
+    private long count;
+
+    private NdjsonWriter(Context ctx) {
+        this.jsonMapper = ctx.jsonMapper();
+        this.out = ctx.outputStream();
+    }
+
+    // True when the client asked for NDJSON instead of a paged JSON envelope
+    public static boolean isRequested(Context ctx) {
+        String accept = ctx.header(Header.ACCEPT);
+        return accept != null && accept.contains(CONTENT_TYPE);
+    }
+
+    public static <T> NdjsonWriter<T> open(Context ctx) {
+        ctx.status(HttpStatus.OK);
+        ctx.contentType(CONTENT_TYPE);
+        return new NdjsonWriter<>(ctx);
+    }
+
+    @Override
+    public void accept(T row) {
+        try {
+            out.write(jsonMapper.toJsonString(row, row.getClass()).getBytes(StandardCharsets.UTF_8));
+            out.write(NEWLINE);
+            count++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Client stopped reading the NDJSON stream", e);  // Aborts the database cursor
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
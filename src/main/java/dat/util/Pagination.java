@@ -0,0 +1,36 @@
+package dat.util;
+
+import io.javalin.http.Context;
+
+/**
+ * Shared limits and query parameter parsing for the keyset-paginated list routes (?after=&limit=).
+ * The cursor is the ID of the last row of the previous page, so every page is a cheap index range scan.
+ */
+public class Pagination {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;  // Larger limits are rejected by the API and clamped by the DAOs
+
+    private Pagination() {}
+
+    public record PageRequest(long after, int limit) {}
+
+    // Read ?after= and ?limit= from the request, throws a ValidationException for invalid values
+    public static PageRequest fromQuery(Context ctx) {
+        long after = ctx.queryParamAsClass("after", Long.class)
+                .check(a -> a >= 0, "after must be a non-negative ID")
+                .getOrDefault(0L);
+        int limit = ctx.queryParamAsClass("limit", Integer.class)
+                .check(l -> l > 0 && l <= MAX_PAGE_SIZE, "limit must be between 1 and " + MAX_PAGE_SIZE)
+                .getOrDefault(DEFAULT_PAGE_SIZE);
+        return new PageRequest(after, limit);
+    }
+
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    public static long afterOrStart(Long after) {
+        return after != null ? after : 0L;
+    }
+}
@@ -0,0 +1,63 @@
+package dat.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets in the GCRA form: a bucket is one AtomicLong holding the time at which it will be full
+ * again, so taking a token is a read and a compare-and-set, without locks. The buckets live in a
+ * ConcurrentHashMap, whose lookups never block and whose updates lock only one bin. A bucket that has
+ * filled up again holds no state worth keeping and is dropped by the periodic eviction.
+ */
+public class RateLimiter {
+
+    private final Map<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private ScheduledExecutorService evictor;
+
+    /**
+     * Take one token from the bucket of a key that refills one token per intervalNanos and holds burst
+     * tokens. Returns 0 when the request may pass, otherwise the nanoseconds until it would.
+     */
+    public long tryAcquire(Object key, long intervalNanos, long burst, long nowNanos) {
+        AtomicLong fullAt = buckets.get(key);
+        if (fullAt == null) {
+            fullAt = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        }
+        long tolerance = intervalNanos * burst;
+        while (true) {
+            long current = fullAt.get();
+            long next = (current - nowNanos > 0 ? current : nowNanos) + intervalNanos;
+            if (next - nowNanos > tolerance) {
+                return next - nowNanos - tolerance;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Drop the buckets that are full again. A request racing with the removal may go uncounted, never wrongly rejected.
+    public void evictIdle(long nowNanos) {
+        buckets.values().removeIf(fullAt -> fullAt.get() - nowNanos <= 0);
+    }
+
+    public synchronized void startEviction(long intervalSeconds) {
+        if (evictor != null) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> evictIdle(System.nanoTime()), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,48 @@
+package dat.util;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by key hash. Work on different keys runs in parallel unless the keys
+ * happen to share a stripe, while work on the same key is always serialised. Memory stays constant
+ * no matter how many keys there are, and nothing has to be cleaned up when a key goes away.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    // The stripe count is rounded up to a power of two so a stripe is picked with a mask
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock forKey(Object key) {
+        return stripes[stripeOf(key)];
+    }
+
+    // The distinct locks of several keys in stripe order. Taking them in this order cannot deadlock.
+    public List<Lock> forKeys(Collection<?> keys) {
+        return keys.stream()
+                .map(this::stripeOf)
+                .distinct()
+                .sorted()
+                .map(stripe -> (Lock) stripes[stripe])
+                .toList();
+    }
+
+    private int stripeOf(Object key) {
+        int hash = Objects.hashCode(key);
+        hash ^= hash >>> 16;  // Spread the high bits, sequential IDs would otherwise only use the low stripes
+        return hash & mask;
+    }
+}
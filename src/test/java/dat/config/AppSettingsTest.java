@@ -0,0 +1,35 @@
+package dat.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppSettingsTest {
+
+    private static AppSettings settings(String connectionString, String secretKey, String bcryptQueueSize, String bcryptCost) {
+        Properties properties = new Properties();
+        properties.setProperty("CONNECTION_STR", connectionString);
+        properties.setProperty("SECRET_KEY", secretKey);
+        properties.setProperty("BCRYPT_QUEUE_SIZE", bcryptQueueSize);
+        properties.setProperty("BCRYPT_COST", bcryptCost);
+        return AppSettings.from(Map.of(), properties);
+    }
+
+    @Test
+    void reloadKeepsStartupValuesAndTakesTunables() {
+        AppSettings running = settings("jdbc:postgresql://old/", "old-secret", "32", "10");
+        AppSettings reloaded = settings("jdbc:postgresql://new/", "new-secret", "64", "12");
+        assertTrue(reloaded.needsRestartComparedTo(running));
+
+        AppSettings applied = reloaded.withStartupValuesOf(running);
+
+        assertEquals("jdbc:postgresql://old/", applied.getConnectionString());
+        assertEquals("old-secret", applied.getSecretKey());
+        assertEquals(32, applied.getBcryptQueueSize());
+        assertEquals(12, applied.getBcryptCost());
+        assertFalse(applied.needsRestartComparedTo(running));
+    }
+}
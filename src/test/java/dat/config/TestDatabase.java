@@ -0,0 +1,48 @@
+package dat.config;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Shared setup for tests against the Testcontainers PostgreSQL from HibernateConfig.getEntityManagerFactoryForTest().
+ * The container and schema live for the whole test run, so every test class empties the tables it seeds.
+ */
+public class TestDatabase {
+
+    private TestDatabase() {}
+
+    public static EntityManagerFactory emf() {
+        return HibernateConfig.getEntityManagerFactoryForTest();
+    }
+
+    // Run native statements in one transaction, for seeding more rows than the DAOs insert in reasonable time
+    public static void execute(String... statements) {
+        EntityManager em = emf().createEntityManager();
+        try {
+            em.getTransaction().begin();
+            for (String sql : statements) {
+                em.createNativeQuery(sql).executeUpdate();
+            }
+            em.getTransaction().commit();
+        } finally {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+            em.close();
+        }
+    }
+
+    public static void clear() {
+        execute("TRUNCATE appointments, opening_hours, veterinarians, animals, clients, clinics, cities RESTART IDENTITY CASCADE");
+    }
+
+    // Hibernate statistics of the test factory, switched on and reset so the next calls are counted on their own
+    public static Statistics statistics() {
+        Statistics statistics = emf().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        return statistics;
+    }
+}
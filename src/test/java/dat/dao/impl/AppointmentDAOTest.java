@@ -0,0 +1,90 @@
+package dat.dao.impl;
+
+import dat.config.TestDatabase;
+import dat.dto.AppointmentDTO;
+import dat.dto.PageDTO;
+import dat.util.Pagination;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// Appointment reads select the foreign keys as columns, so however many rows they return they run one statement
+class AppointmentDAOTest {
+
+    private static final int APPOINTMENTS = 1_000;
+    private static final int VETERINARIANS = 10;
+
+    private static AppointmentDAO appointmentDAO;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.clear();
+        TestDatabase.execute(
+                "INSERT INTO cities (name, postal_code) VALUES ('Aarhus', '8000')",
+                "INSERT INTO clinics (name, address, contact_phone, city_id, emergency_services, version) " +
+                "VALUES ('Klinik Aarhus', 'Vej 1', '+45 12 34 56 78', 1, false, 0)",
+                "INSERT INTO clients (name, email, phone_number, address, gender, city_id, version) " +
+                "VALUES ('Anna Jensen', 'anna@example.com', '+4587654321', 'Vej 2', 'FEMALE', 1, 0)",
+                "INSERT INTO animals (name, species, breed, age, owner_id, medical_history, version) " +
+                "VALUES ('Fido', 'DOG', 'Labrador', 4, 1, 'VACCINATED', 0)",
+                "INSERT INTO veterinarians (name, specialties, clinic_id, available_for_emergency, version) " +
+                "SELECT 'Dyrlæge ' || g, 'GENERAL_PRACTICE', 1, 'AVAILABLE', 0 FROM generate_series(1, " + VETERINARIANS + ") g",
+                // One appointment per veterinarian and hour, so none overlap
+                "INSERT INTO appointments (id, appointment_datetime, duration_minutes, reason, status, clinic_id, client_id, animal_id, veterinarian_id, version) " +
+                "SELECT nextval('appointments_seq'), TIMESTAMP '2030-01-07 08:00' + (g / " + VETERINARIANS + ") * INTERVAL '1 hour', 30, " +
+                "'Checkup', 'SCHEDULED', 1, 1, 1, 1 + g % " + VETERINARIANS + ", 0 FROM generate_series(0, " + (APPOINTMENTS - 1) + ") g");
+        appointmentDAO = AppointmentDAO.getInstance(TestDatabase.emf());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        TestDatabase.clear();
+    }
+
+    @Test
+    void readAllRunsOneStatementForAllAppointments() {
+        Statistics statistics = TestDatabase.statistics();
+        List<AppointmentDTO> appointments = appointmentDAO.readAll();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(APPOINTMENTS, appointments.size());
+        assertReferences(appointments);
+    }
+
+    @Test
+    void readPageRunsOneStatement() {
+        Statistics statistics = TestDatabase.statistics();
+        PageDTO<AppointmentDTO> page = appointmentDAO.readPage(null, Pagination.MAX_PAGE_SIZE);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(Pagination.MAX_PAGE_SIZE, page.getItems().size());
+        assertReferences(page.getItems());
+    }
+
+    @Test
+    void streamAllRunsOneStatementForAllAppointments() {
+        List<AppointmentDTO> appointments = new ArrayList<>();
+        Statistics statistics = TestDatabase.statistics();
+        long count = appointmentDAO.streamAll(appointments::add);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(APPOINTMENTS, count);
+        assertReferences(appointments);
+    }
+
+    private static void assertReferences(List<AppointmentDTO> appointments) {
+        for (AppointmentDTO appointment : appointments) {
+            assertNotNull(appointment.getClinicId(), "Clinic missing for appointment " + appointment.getId());
+            assertNotNull(appointment.getClientId(), "Client missing for appointment " + appointment.getId());
+            assertNotNull(appointment.getAnimalId(), "Animal missing for appointment " + appointment.getId());
+            assertNotNull(appointment.getVeterinarianId(), "Veterinarian missing for appointment " + appointment.getId());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package dat.dao.impl;
+
+import dat.config.TestDatabase;
+import dat.dto.ClinicDTO;
+import dat.dto.PageDTO;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Building a ClinicDTO reads the city and opening hours, which must come with the clinics and not as one query per clinic
+class ClinicDAOTest {
+
+    private static final int CLINICS = 60;
+    private static final int OPENING_HOURS_PER_CLINIC = 5;
+
+    private static ClinicDAO clinicDAO;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.clear();
+        TestDatabase.execute(
+                "INSERT INTO cities (name, postal_code) VALUES ('Aarhus', '8000'), ('Odense', '5000')",
+                "INSERT INTO clinics (name, address, contact_phone, city_id, emergency_services) " +
+                "SELECT 'Klinik ' || g, 'Vej ' || g, '+45 12 34 56 78', 1 + g % 2, false FROM generate_series(1, " + CLINICS + ") g",
+                "INSERT INTO opening_hours (weekday, open_time, close_time, clinic_id) " +
+                "SELECT (ARRAY['MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY'])[d], TIME '08:00', TIME '16:00', c.id " +
+                "FROM clinics c CROSS JOIN generate_series(1, " + OPENING_HOURS_PER_CLINIC + ") d");
+        clinicDAO = ClinicDAO.getInstance(TestDatabase.emf());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        TestDatabase.clear();
+    }
+
+    @Test
+    void readAllRunsOneStatementForAllClinics() {
+        Statistics statistics = TestDatabase.statistics();
+        List<ClinicDTO> clinics = clinicDAO.readAll();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(CLINICS, clinics.size());
+        assertLoaded(clinics);
+    }
+
+    @Test
+    void readPageRunsTwoStatementsWhateverThePageSize() {
+        Statistics statistics = TestDatabase.statistics();
+        PageDTO<ClinicDTO> page = clinicDAO.readPage(null, 50);
+
+        assertEquals(2, statistics.getPrepareStatementCount());  // The page of IDs, then the clinics with their graph
+        assertEquals(50, page.getItems().size());
+        assertLoaded(page.getItems());
+    }
+
+    @Test
+    void findByCityRunsTwoStatements() {
+        Statistics statistics = TestDatabase.statistics();
+        PageDTO<ClinicDTO> page = clinicDAO.findByCity(1L, null, 100);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(CLINICS / 2, page.getItems().size());
+        assertLoaded(page.getItems());
+    }
+
+    private static void assertLoaded(List<ClinicDTO> clinics) {
+        for (ClinicDTO clinic : clinics) {
+            assertTrue(clinic.getCityId() != null, "City missing for clinic " + clinic.getId());
+            assertEquals(OPENING_HOURS_PER_CLINIC, clinic.getOpeningHours().size(), "Opening hours of clinic " + clinic.getId());
+        }
+    }
+}
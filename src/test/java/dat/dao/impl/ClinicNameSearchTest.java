@@ -0,0 +1,73 @@
+package dat.dao.impl;
+
+import dat.config.TestDatabase;
+import dat.dto.ClinicDTO;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The name search must stay on idx_clinics_name_trgm at a realistic table size, a sequential scan of 100k names does not
+class ClinicNameSearchTest {
+
+    private static final int CLINICS = 100_000;
+    private static final String TERM = "Aarhus Dyrehospital";
+
+    private static ClinicDAO clinicDAO;
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.clear();
+        TestDatabase.execute(
+                "INSERT INTO cities (name, postal_code) VALUES ('Aarhus', '8000')",
+                "INSERT INTO clinics (name, address, contact_phone, city_id, emergency_services, latitude, longitude) " +
+                "SELECT 'Klinik ' || substr(md5(g::text), 1, 12), 'Vej ' || g, '+45 12 34 56 78', 1, g % 10 = 0, " +
+                "56.0 + (g % 1000) / 1000.0, 10.0 + (g / 1000) / 100.0 FROM generate_series(1, " + (CLINICS - 3) + ") g",
+                "INSERT INTO clinics (name, address, contact_phone, city_id, emergency_services) VALUES " +
+                "('Aarhus Dyrehospital', 'Havnegade 1', '+45 12 34 56 78', 1, true), " +
+                "('Aarhus Dyrehospital Syd', 'Sydvej 2', '+45 12 34 56 78', 1, false), " +
+                "('Arhus Dyrehospital', 'Nordvej 3', '+45 12 34 56 78', 1, false)",
+                "ANALYZE clinics");
+        clinicDAO = ClinicDAO.getInstance(TestDatabase.emf());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        TestDatabase.clear();
+    }
+
+    @Test
+    void nameSearchUsesTrigramIndex() {
+        List<String> plan = explain(TERM);
+        String text = String.join("\n", plan);
+        assertTrue(plan.stream().anyMatch(line -> line.contains("Bitmap Index Scan on idx_clinics_name_trgm")), text);
+        assertTrue(plan.stream().noneMatch(line -> line.contains("Seq Scan on clinics")), text);
+    }
+
+    @Test
+    void nameSearchRanksExactMatchFirstAndToleratesTypos() {
+        List<String> names = clinicDAO.searchByName(TERM, 10).stream().map(ClinicDTO::getName).toList();
+        assertEquals(TERM, names.get(0));
+        assertTrue(names.contains("Aarhus Dyrehospital Syd"), names.toString());
+        assertTrue(names.contains("Arhus Dyrehospital"), names.toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> explain(String name) {
+        EntityManager em = TestDatabase.emf().createEntityManager();
+        try {
+            return (List<String>) em.createNativeQuery("EXPLAIN " + ClinicDAO.NAME_SEARCH_SQL)
+                    .setParameter("pattern", ClinicDAO.likePattern(name))
+                    .setParameter("name", name)
+                    .setParameter("limit", 20)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+}
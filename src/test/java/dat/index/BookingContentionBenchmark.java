@@ -0,0 +1,85 @@
+package dat.index;
+
+import dat.util.StripedLocks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Booking throughput of 64 concurrent bookers over 2,000 veterinarians, following the path of AppointmentDAO.create:
+ * take the veterinarian's lock, check the calendar for an overlap, commit and publish the booking. A 200 us park
+ * stands in for the database commit. stripes=1 is one global lock, stripes=256 is what AppointmentDAO uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingContentionBenchmark {
+
+    private static final int VETS = 2_000;
+    private static final long COMMIT_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 7);
+
+    @Param({"1", "256"})
+    int stripes;
+
+    private StripedLocks locks;
+    private VeterinarianCalendarIndex calendar;
+    private final AtomicLong nextId = new AtomicLong();
+
+    // A fresh calendar per iteration, so a filling calendar does not turn later iterations into rejections
+    @Setup(Level.Iteration)
+    public void setUp() {
+        locks = new StripedLocks(stripes);
+        calendar = new VeterinarianCalendarIndex(new OpeningScheduleIndex());  // Isolated from the application singletons
+        calendar.loadBookings(List.of());
+    }
+
+    @Benchmark
+    public boolean book() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long vetId = 1 + random.nextInt(VETS);
+        LocalDateTime start = FIRST_DAY.plusDays(random.nextInt(365)).atTime(8 + random.nextInt(9), 15 * random.nextInt(4));
+        Lock lock = locks.forKey(vetId);
+        lock.lock();
+        try {
+            if (calendar.overlaps(vetId, start, 30, null)) {
+                return false;
+            }
+            LockSupport.parkNanos(COMMIT_NANOS);
+            calendar.putBooking(nextId.incrementAndGet(), vetId, start, 30);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BookingContentionBenchmark.class.getSimpleName()).build()).run();
+    }
+}
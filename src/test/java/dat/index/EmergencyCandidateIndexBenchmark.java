@@ -0,0 +1,85 @@
+package dat.index;
+
+import dat.enums.Availability;
+import dat.enums.Weekday;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency distribution of openCandidates over 50,000 emergency clinics, spread over a day of lookup moments.
+ * The p0.99 line of the output must stay under EmergencyCandidateIndex.LOOKUP_BUDGET_NANOS (1 ms).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmergencyCandidateIndexBenchmark {
+
+    @Param("50000")
+    int clinics;
+
+    private EmergencyCandidateIndex index;
+    private ZonedDateTime[] moments;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        OpeningScheduleIndex schedules = new OpeningScheduleIndex();  // Isolated from the application singletons
+        index = new EmergencyCandidateIndex(schedules);
+        Map<Long, Boolean> emergencyFlags = new HashMap<>();
+        List<EmergencyCandidateIndex.VeterinarianState> vets = new ArrayList<>();
+        for (long id = 1; id <= clinics; id++) {
+            List<OpeningScheduleIndex.Interval> hours = new ArrayList<>();
+            for (Weekday day : Weekday.values()) {
+                int open = 6 + random.nextInt(6);
+                hours.add(new OpeningScheduleIndex.Interval(day, LocalTime.of(open, 0), LocalTime.of(open + 8, 30)));
+            }
+            schedules.put(id, hours);
+            emergencyFlags.put(id, true);
+            vets.add(new EmergencyCandidateIndex.VeterinarianState(id, id,
+                    random.nextInt(4) == 0 ? Availability.BOOKED : Availability.AVAILABLE));
+        }
+        index.loadClinics(emergencyFlags);
+        index.loadVeterinarians(vets);
+
+        moments = new ZonedDateTime[OpeningScheduleIndex.MINUTES_PER_DAY];
+        ZonedDateTime now = ZonedDateTime.now();
+        for (int i = 0; i < moments.length; i++) {
+            moments[i] = now.plusMinutes(i);
+        }
+    }
+
+    @Benchmark
+    public long[] openCandidates() {
+        next = (next + 1) % moments.length;
+        return index.openCandidates(moments[next]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmergencyCandidateIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,92 @@
+package dat.index;
+
+import dat.enums.Specialization;
+import dat.enums.Weekday;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Free-slot search over 5,000 veterinarians in 500 clinics with six bookings per working day, searching
+ * one week for a 45 minute slot with a different specialization each call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VeterinarianCalendarIndexBenchmark {
+
+    @Param("5000")
+    int vets;
+
+    @Param("500")
+    int clinics;
+
+    private VeterinarianCalendarIndex index;
+    private Specialization[] specializations;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        OpeningScheduleIndex schedules = new OpeningScheduleIndex();  // Isolated from the application singletons
+        index = new VeterinarianCalendarIndex(schedules);
+        for (long clinicId = 1; clinicId <= clinics; clinicId++) {
+            List<OpeningScheduleIndex.Interval> hours = new ArrayList<>();
+            for (Weekday day : List.of(Weekday.MONDAY, Weekday.TUESDAY, Weekday.WEDNESDAY, Weekday.THURSDAY, Weekday.FRIDAY)) {
+                hours.add(new OpeningScheduleIndex.Interval(day, LocalTime.of(8, 0), LocalTime.of(17, 0)));
+            }
+            schedules.put(clinicId, hours);
+            index.putClinic(clinicId, clinicId % 20);
+        }
+        specializations = Specialization.values();
+        LocalDate monday = LocalDate.of(2030, 1, 7);
+        List<VeterinarianCalendarIndex.Booking> all = new ArrayList<>();
+        long appointmentId = 1;
+        for (long vetId = 1; vetId <= vets; vetId++) {
+            index.putVeterinarian(vetId, 1 + random.nextLong(clinics), specializations[random.nextInt(specializations.length)]);
+            for (int day = 0; day < 5; day++) {
+                for (int booking = 0; booking < 6; booking++) {
+                    LocalDateTime start = monday.plusDays(day).atTime(8 + random.nextInt(9), 15 * random.nextInt(4));
+                    all.add(new VeterinarianCalendarIndex.Booking(appointmentId++, vetId, start, 30));
+                }
+            }
+        }
+        index.loadBookings(all);
+        from = monday.atTime(8, 0);
+        to = monday.plusDays(7).atStartOfDay();
+    }
+
+    @Benchmark
+    public List<VeterinarianCalendarIndex.FreeSlot> findFreeSlots() {
+        next = (next + 1) % specializations.length;
+        return index.findFreeSlots(specializations[next], null, from, to, 45, 10);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(VeterinarianCalendarIndexBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,83 @@
+package dat.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Dates are relative to today in the clinic zone, since days before today are evicted
+class VeterinarianCalendarIndexTest {
+
+    private VeterinarianCalendarIndex index;
+    private LocalDate tomorrow;
+
+    @BeforeEach
+    void setUp() {
+        index = new VeterinarianCalendarIndex(new OpeningScheduleIndex());  // Isolated from the application singletons
+        tomorrow = LocalDate.now(OpeningScheduleIndex.CLINIC_ZONE).plusDays(1);
+    }
+
+    @Test
+    void overlapsOnlyBookingsOfTheSameVeterinarian() {
+        index.putBooking(1L, 10L, tomorrow.atTime(9, 0), 30);
+
+        assertTrue(index.overlaps(10L, tomorrow.atTime(9, 15), 30, null));
+        assertFalse(index.overlaps(10L, tomorrow.atTime(9, 30), 30, null));
+        assertFalse(index.overlaps(11L, tomorrow.atTime(9, 15), 30, null));
+        assertFalse(index.overlaps(10L, tomorrow.atTime(9, 15), 30, 1L));
+    }
+
+    @Test
+    void movedBookingFreesItsOldTime() {
+        index.putBooking(1L, 10L, tomorrow.atTime(9, 0), 30);
+        index.putBooking(1L, 11L, tomorrow.plusDays(1).atTime(14, 0), 60);
+
+        assertFalse(index.overlaps(10L, tomorrow.atTime(9, 0), 30, null));
+        assertTrue(index.overlaps(11L, tomorrow.plusDays(1).atTime(14, 30), 15, null));
+        assertEquals(1, index.size());
+
+        index.removeBooking(1L);
+        assertFalse(index.overlaps(11L, tomorrow.plusDays(1).atTime(14, 30), 15, null));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void bookingAcrossMidnightOverlapsBothDays() {
+        index.putBooking(1L, 10L, tomorrow.atTime(23, 30), 60);
+
+        assertTrue(index.overlaps(10L, tomorrow.atTime(23, 45), 10, null));
+        assertTrue(index.overlaps(10L, tomorrow.plusDays(1).atStartOfDay(), 15, null));
+        assertFalse(index.overlaps(10L, tomorrow.plusDays(1).atTime(0, 30), 15, null));
+    }
+
+    @Test
+    void bookingsBeforeTodayAreNotKept() {
+        LocalDateTime threeDaysAgo = tomorrow.minusDays(4).atTime(9, 0);
+        index.loadBookings(List.of(
+                new VeterinarianCalendarIndex.Booking(1L, 10L, threeDaysAgo, 30),
+                new VeterinarianCalendarIndex.Booking(2L, 10L, tomorrow.atTime(9, 0), 30)));
+        index.putBooking(3L, 10L, threeDaysAgo.plusHours(2), 30);
+
+        assertEquals(1, index.size());
+        assertFalse(index.overlaps(10L, threeDaysAgo, 30, null));
+        assertTrue(index.overlaps(10L, tomorrow.atTime(9, 0), 30, null));
+    }
+
+    @Test
+    void evictionDropsDaysThatHavePassed() {
+        index.putBooking(1L, 10L, tomorrow.atTime(9, 0), 30);
+        index.putBooking(2L, 10L, tomorrow.plusDays(1).atTime(9, 0), 30);
+
+        index.evictBefore(tomorrow.plusDays(1));
+
+        assertEquals(1, index.size());
+        assertFalse(index.overlaps(10L, tomorrow.atTime(9, 0), 30, null));
+        assertTrue(index.overlaps(10L, tomorrow.plusDays(1).atTime(9, 0), 30, null));
+    }
+}
@@ -0,0 +1,112 @@
+package dat.reminder;
+
+import dat.index.OpeningScheduleIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// Runs on the real clock, every reminder is due two seconds after the scheduler starts
+class ReminderSchedulerTest {
+
+    private static final long WAIT_SECONDS = 5;
+
+    private ReminderScheduler scheduler;
+    private InMemoryReminderSink sink;
+    private LocalDateTime inAnHour;  // Start of an appointment whose HOUR_BEFORE reminder is due shortly
+    private LocalDateTime inADay;  // Start of an appointment whose DAY_BEFORE reminder is due shortly
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new ReminderScheduler();
+        sink = new InMemoryReminderSink();
+        scheduler.setSink(sink);
+        LocalDateTime dueTime = LocalDateTime.now(OpeningScheduleIndex.CLINIC_ZONE).plusSeconds(2);
+        inAnHour = dueTime.plus(ReminderKind.HOUR_BEFORE.getLead());
+        inADay = dueTime.plus(ReminderKind.DAY_BEFORE.getLead());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    @Test
+    void loadedAppointmentsAreRemindedWhenDue() throws InterruptedException {
+        scheduler.start((from, to, action) -> {
+            action.accept(1L, inAnHour);
+            action.accept(2L, inADay);
+        });
+
+        Set<Reminder> received = new HashSet<>();
+        received.add(sink.getQueue().poll(WAIT_SECONDS, TimeUnit.SECONDS));
+        received.add(sink.getQueue().poll(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        assertEquals(Set.of(new Reminder(1L, ReminderKind.HOUR_BEFORE, inAnHour.withNano(0)),
+                new Reminder(2L, ReminderKind.DAY_BEFORE, inADay.withNano(0))), received);
+    }
+
+    @Test
+    void changedAppointmentIsRemindedAtItsNewTime() throws InterruptedException {
+        scheduler.start((from, to, action) -> action.accept(1L, inAnHour.plusHours(5)));
+        scheduler.appointmentChanged(1L, inAnHour, true);
+
+        Reminder reminder = sink.getQueue().poll(WAIT_SECONDS, TimeUnit.SECONDS);
+
+        assertNotNull(reminder);
+        assertEquals(1L, reminder.appointmentId());
+        assertEquals(inAnHour.withNano(0), reminder.appointmentDateTime());
+    }
+
+    @Test
+    void cancelledAppointmentIsNotReminded() throws InterruptedException {
+        scheduler.start((from, to, action) -> {
+            action.accept(1L, inAnHour);
+            action.accept(2L, inAnHour);
+        });
+        scheduler.appointmentChanged(1L, inAnHour, false);
+
+        Reminder reminder = sink.getQueue().poll(WAIT_SECONDS, TimeUnit.SECONDS);
+
+        assertNotNull(reminder);
+        assertEquals(2L, reminder.appointmentId());
+        assertNull(sink.getQueue().poll(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void changeDuringLoadNeitherWaitsForTheLoadNorIsOverwrittenByIt() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> started = CompletableFuture.runAsync(() -> scheduler.start((from, to, action) -> {
+            action.accept(1L, inAnHour);
+            action.accept(2L, inAnHour);
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        loading.await(WAIT_SECONDS, TimeUnit.SECONDS);
+
+        // The DAO calls this while holding a booking lock, it must not wait for the slow load
+        CompletableFuture.runAsync(() -> scheduler.appointmentChanged(1L, inAnHour, false)).get(1, TimeUnit.SECONDS);
+        release.countDown();
+        started.get(WAIT_SECONDS, TimeUnit.SECONDS);
+
+        Reminder reminder = sink.getQueue().poll(WAIT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(reminder);
+        assertEquals(2L, reminder.appointmentId());
+        assertNull(sink.getQueue().poll(1, TimeUnit.SECONDS));
+    }
+}
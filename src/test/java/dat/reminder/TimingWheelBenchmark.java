@@ -0,0 +1,89 @@
+package dat.reminder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One million reminders spread over the next 48 hours, one tick per second as in ReminderScheduler.
+ * Moving a reminder is measured per operation on a full wheel, advancing through all 48 hours is
+ * measured as a single shot on a freshly filled wheel.
+ */
+@Fork(1)
+public class TimingWheelBenchmark {
+
+    private static final int TIMERS = 1_000_000;
+    private static final int HORIZON = 48 * 3600;
+
+    @State(Scope.Thread)
+    public static class FullWheel {
+
+        TimingWheel wheel;
+        Random random;
+
+        @Setup
+        public void setUp() {
+            random = new Random(42);
+            wheel = filledWheel(random);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FreshWheel {
+
+        TimingWheel wheel;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            wheel = filledWheel(new Random(42));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public boolean cancelAndSchedule(FullWheel state) {
+        long key = 1 + state.random.nextInt(TIMERS);
+        state.wheel.cancel(key);
+        return state.wheel.schedule(key, 1 + state.random.nextInt(HORIZON));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public long advanceFortyEightHours(FreshWheel state) {
+        long[] fired = {0};
+        state.wheel.advance(HORIZON, (key, deadline) -> fired[0]++);
+        return fired[0];
+    }
+
+    private static TimingWheel filledWheel(Random random) {
+        TimingWheel wheel = new TimingWheel(ReminderScheduler.MAX_PENDING, 0);
+        for (int key = 1; key <= TIMERS; key++) {
+            wheel.schedule(key, 1 + random.nextInt(HORIZON));
+        }
+        return wheel;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TimingWheelBenchmark.class.getSimpleName()).build()).run();
+    }
+}
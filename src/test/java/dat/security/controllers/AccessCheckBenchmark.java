@@ -0,0 +1,67 @@
+package dat.security.controllers;
+
+import dat.security.enums.Role;
+import dat.security.token.TokenKeys;
+import dat.security.token.VerifiedUser;
+import dk.bugelhartmann.UserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The token check AccessController.accessHandler runs for every protected request: verify the bearer token,
+ * then match its roles against the route. Measured with the verified-token cache and with the cache
+ * cleared before every request, which is what a cache miss costs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessCheckBenchmark {
+
+    @Param({"true", "false"})
+    boolean cached;
+
+    private SecurityController controller;
+    private String header;
+    private final long allowedRoles = Role.USER.bit();
+
+    @Setup
+    public void setUp() {
+        byte[] secret = new byte[48];  // A fresh key per run, long enough for HS256
+        new SecureRandom().nextBytes(secret);
+        controller = new SecurityController(new TokenKeys("VetLocator", "1800000", Base64.getEncoder().encodeToString(secret)));
+        header = "Bearer " + controller.createToken(new UserDTO("benchmark", Set.of("USER")));
+    }
+
+    @Benchmark
+    public boolean checkAccess() {
+        if (!cached) {
+            controller.verifiedTokens.clear();
+        }
+        VerifiedUser user = controller.verify(header.split(" ")[1]);
+        return controller.authorize(user, allowedRoles);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AccessCheckBenchmark.class.getSimpleName()).build()).run();
+    }
+}
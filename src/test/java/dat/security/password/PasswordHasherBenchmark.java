@@ -0,0 +1,44 @@
+package dat.security.password;
+
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for one BCrypt hash per cost on one core, to choose BCRYPT_COST: pick the highest cost that keeps a
+ * login within its target. A login uses one core for the whole hash, so BCRYPT_THREADS cores manage at
+ * most BCRYPT_THREADS * 1000 / score logins per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordHasherBenchmark {
+
+    @Param({"8", "9", "10", "11", "12", "13", "14"})
+    int cost;
+
+    @Benchmark
+    public String hash() {
+        return BCrypt.hashpw("correct horse battery staple", BCrypt.gensalt(cost));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PasswordHasherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+package dat.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 32 threads taking tokens for 10,000 clients on 20 routes from one limiter, with eviction running every
+ * second. The score is the time per request seen by one thread; with fewer cores than threads, the CPU
+ * time per request is the score times cores / 32.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final long INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / 50;
+    private static final long BURST = 100;
+
+    private record Key(int client, int route) {}
+
+    private RateLimiter limiter;
+    private Key[] keys;
+
+    @Setup
+    public void setUp() {
+        keys = new Key[200_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Key(i % 10_000, i / 10_000);
+        }
+        limiter = new RateLimiter();
+        limiter.startEviction(1);
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keys.length)], INTERVAL_NANOS, BURST, System.nanoTime());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimiterBenchmark.class.getSimpleName()).build()).run();
+    }
+}